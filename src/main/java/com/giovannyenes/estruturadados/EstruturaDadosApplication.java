@@ -1,6 +1,7 @@
 package com.giovannyenes.estruturadados;
 
-import com.giovannyenes.estruturadados.service.CsvLoaderService;
+import com.giovannyenes.estruturadados.service.ShardService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -8,10 +9,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class EstruturaDadosApplication implements CommandLineRunner {
 
-    private final CsvLoaderService loaderService;
+    private final ShardService shardService;
+    private final String pastaDados;
 
-    public EstruturaDadosApplication(CsvLoaderService loaderService) {
-        this.loaderService = loaderService;
+    public EstruturaDadosApplication(ShardService shardService,
+                                     @Value("${analise.dados.pasta:src/main/resources/data}") String pastaDados) {
+        this.shardService = shardService;
+        this.pastaDados = pastaDados;
     }
 
     public static void main(String[] args) {
@@ -20,6 +24,6 @@ public class EstruturaDadosApplication implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
-        loaderService.carregarCSV("src/main/resources/data");
+        shardService.catalogar(pastaDados);
     }
 }
@@ -3,13 +3,19 @@ package com.giovannyenes.estruturadados.controller;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.giovannyenes.estruturadados.service.AnaliseService;
+import com.giovannyenes.estruturadados.service.ClusterService;
+import com.giovannyenes.estruturadados.service.EventosService;
+import com.giovannyenes.estruturadados.service.SketchService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,51 +23,78 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 @RestController
 @RequestMapping("/api/analise")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {ClusterService.CABECALHO_PARCIAL, CacheRespostasFilter.CABECALHO_VERSAO})
 @Tag(name = "Análise de Queimadas", description = "Endpoints para análise estatística de focos de queimadas")
 public class AnaliseController {
 
     private final AnaliseService analiseService;
+    private final SketchService sketchService;
+    private final EventosService eventosService;
 
-    public AnaliseController(AnaliseService analiseService) {
+    public AnaliseController(AnaliseService analiseService, SketchService sketchService, EventosService eventosService) {
         this.analiseService = analiseService;
+        this.sketchService = sketchService;
+        this.eventosService = eventosService;
     }
 
     // ========== ENDPOINTS DE DADOS BÁSICOS ==========
 
+    @Operation(summary = "Lista os estados disponíveis", 
+               description = "Retorna as siglas das UFs que possuem arquivos de focos, em ordem alfabética. Use a sigla no parâmetro 'estado' dos demais endpoints")
+    @GetMapping("/estados")
+    public List<String> listarEstados(
+            @Parameter(description = "Algoritmo de ordenação: quicksort-3-vias, introsort, radix, mergesort-paralelo ou jdk (vazio = padrão)", example = "introsort")
+            @RequestParam(required = false) String algoritmo) {
+        return analiseService.listarEstados(algoritmo);
+    }
+
     @Operation(summary = "Lista todos os anos disponíveis", 
                description = "Retorna lista de anos distintos presentes na base de dados, em ordem crescente")
     @GetMapping("/anos")
-    public List<Integer> listarAnosOrdenados() {
-        return analiseService.listarAnosOrdenados();
+    public List<Integer> listarAnosOrdenados(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Algoritmo de ordenação: quicksort-3-vias, introsort, radix, mergesort-paralelo ou jdk (vazio = padrão)", example = "introsort")
+            @RequestParam(required = false) String algoritmo) {
+        return analiseService.listarAnosOrdenados(estado, algoritmo);
     }
 
     @Operation(summary = "Total de focos por ano", 
                description = "Retorna a contagem total de focos de queimadas agrupados por ano")
     @GetMapping("/total-por-ano")
-    public Map<Integer, Long> totalFocosPorAno() {
-        return analiseService.totalFocosPorAno();
+    public Map<Integer, Long> totalFocosPorAno(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.totalFocosPorAno(estado);
     }
 
     @Operation(summary = "Lista todos os biomas disponíveis", 
                description = "Retorna lista de biomas distintos presentes na base de dados, em ordem alfabética")
     @GetMapping("/biomas")
-    public List<String> listarBiomasOrdenados() {
-        return analiseService.listarBiomasOrdenados();
+    public List<String> listarBiomasOrdenados(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Algoritmo de ordenação: quicksort-3-vias, introsort, radix, mergesort-paralelo ou jdk (vazio = padrão)", example = "introsort")
+            @RequestParam(required = false) String algoritmo) {
+        return analiseService.listarBiomasOrdenados(estado, algoritmo);
     }
 
     @Operation(summary = "Total de focos por bioma", 
                description = "Retorna a contagem total de focos de queimadas agrupados por bioma")
     @GetMapping("/total-por-bioma")
-    public Map<String, Long> totalFocosPorBioma() {
-        return analiseService.totalFocosPorBioma();
+    public Map<String, Long> totalFocosPorBioma(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.totalFocosPorBioma(estado);
     }
 
     @Operation(summary = "Crescimento percentual por ano", 
                description = "Retorna a variação percentual de queimadas entre anos consecutivos. Não inclui o primeiro ano. Valores com 2 casas decimais.")
     @GetMapping("/crescimento-por-ano")
-    public Map<Integer, Double> crescimentoPercentualPorAno() {
-        return analiseService.crescimentoPercentualPorAno();
+    public Map<Integer, Double> crescimentoPercentualPorAno(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.crescimentoPercentualPorAno(estado);
     }
 
     // ========== ENDPOINTS DE ANÁLISE TEMPORAL ==========
@@ -69,33 +102,112 @@ public class AnaliseController {
     @Operation(summary = "Contagem de focos por mês", 
                description = "Retorna a quantidade de focos agrupados por mês (1-12), considerando todos os anos")
     @GetMapping("/contagem-por-mes")
-    public Map<Integer, Long> contagemPorMes() {
-        return analiseService.contagemPorMes();
+    public Map<Integer, Long> contagemPorMes(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.contagemPorMes(estado);
     }
 
     @Operation(summary = "Contagem de focos por estação", 
                description = "Retorna a quantidade de focos agrupados por estação do ano (Verão, Outono, Inverno, Primavera). Baseado no Hemisfério Sul (Brasil)")
     @GetMapping("/contagem-por-estacao")
-    public Map<String, Long> contagemPorEstacao() {
-        return analiseService.contagemPorEstacao();
+    public Map<String, Long> contagemPorEstacao(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.contagemPorEstacao(estado);
     }
 
     @Operation(summary = "Estação com mais queimadas", 
                description = "Retorna a estação do ano que possui o maior número de focos de queimadas")
     @GetMapping("/estacao-mais-queimadas")
-    public Map<String, Long> estacaoComMaisQueimadas() {
-        return analiseService.estacaoComMaisQueimadas();
+    public Map<String, Long> estacaoComMaisQueimadas(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.estacaoComMaisQueimadas(estado);
     }
 
     // ========== ENDPOINTS DE RANKING ==========
 
     @Operation(summary = "Ranking de municípios com mais queimadas", 
-               description = "Retorna os municípios com maior número de focos de queimadas, ordenados de forma decrescente")
+               description = "Retorna os municípios com maior número de focos de queimadas, ordenados de forma decrescente. No modo aproximado (Space-Saving) cada município traz a estimativa e o mínimo garantido")
     @GetMapping("/ranking-municipios")
-    public Map<String, Long> rankingMunicipios(
+    public Map<String, ?> rankingMunicipios(
             @Parameter(description = "Número de municípios a retornar no ranking", example = "10")
-            @RequestParam(defaultValue = "10") int top) {
-        return analiseService.rankingMunicipios(top);
+            @RequestParam(defaultValue = "10") int top,
+            @Parameter(description = "Usa o sketch mantido na carga em vez de varrer a base", example = "false")
+            @RequestParam(defaultValue = "false") boolean aproximado,
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Algoritmo de ordenação: quicksort-3-vias, introsort, radix, mergesort-paralelo ou jdk (vazio = padrão)", example = "introsort")
+            @RequestParam(required = false) String algoritmo) {
+        return aproximado ? sketchService.rankingMunicipios(top, estado) : analiseService.rankingMunicipios(top, estado, algoritmo);
+    }
+
+    // ========== ENDPOINTS DE CONTAGEM DISTINTA E DISTRIBUIÇÃO ==========
+
+    @Operation(summary = "Municípios distintos com focos", 
+               description = "Retorna a quantidade de municípios distintos, no ano informado ou em toda a base. No modo aproximado (HyperLogLog) inclui erro padrão e intervalo de 95%")
+    @GetMapping("/municipios-distintos")
+    public Map<String, Object> municipiosDistintos(
+            @Parameter(description = "Ano a considerar (vazio = todos)", example = "2020")
+            @RequestParam(required = false) Integer ano,
+            @Parameter(description = "Usa o sketch mantido na carga em vez de varrer a base", example = "false")
+            @RequestParam(defaultValue = "false") boolean aproximado,
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return aproximado ? sketchService.municipiosDistintos(estado, ano) : analiseService.municipiosDistintos(estado, ano);
+    }
+
+    @Operation(summary = "Focos distintos", 
+               description = "Retorna a quantidade de foco_ids distintos, no ano informado ou em toda a base. No modo aproximado (HyperLogLog) inclui erro padrão e intervalo de 95%")
+    @GetMapping("/focos-distintos")
+    public Map<String, Object> focosDistintos(
+            @Parameter(description = "Ano a considerar (vazio = todos)", example = "2020")
+            @RequestParam(required = false) Integer ano,
+            @Parameter(description = "Usa o sketch mantido na carga em vez de varrer a base", example = "false")
+            @RequestParam(defaultValue = "false") boolean aproximado,
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return aproximado ? sketchService.focosDistintos(estado, ano) : analiseService.focosDistintos(estado, ano);
+    }
+
+    @Operation(summary = "Distribuição de focos por dia", 
+               description = "Retorna os quantis (p50, p90, p99) da quantidade de focos por dia. No modo aproximado (DDSketch) inclui o erro relativo máximo")
+    @GetMapping("/distribuicao-diaria")
+    public Map<String, Object> distribuicaoDiaria(
+            @Parameter(description = "Ano a considerar (vazio = todos)", example = "2020")
+            @RequestParam(required = false) Integer ano,
+            @Parameter(description = "Usa o sketch mantido na carga em vez de varrer a base", example = "false")
+            @RequestParam(defaultValue = "false") boolean aproximado,
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Algoritmo de ordenação: quicksort-3-vias, introsort, radix, mergesort-paralelo ou jdk (vazio = padrão)", example = "introsort")
+            @RequestParam(required = false) String algoritmo) {
+        return aproximado ? sketchService.distribuicaoDiaria(estado, ano) : analiseService.distribuicaoDiaria(estado, ano, algoritmo);
+    }
+
+    // ========== ENDPOINTS DE ORDENAÇÃO ==========
+
+    @Operation(summary = "Benchmark dos algoritmos de ordenação",
+               description = "Ordena os dados carregados (datas, datas já ordenadas, chaves do ranking, municípios e foco_ids) com cada algoritmo e retorna mediana e mínimo em ms. Considera apenas os shards desta instância; acima de analise.ordenacao.benchmark-max-registros usa uma amostra uniforme")
+    @GetMapping("/ordenacao/benchmark")
+    public Map<String, Object> benchmarkOrdenacao(
+            @Parameter(description = "Execuções medidas por algoritmo (1 a 20), além de uma de aquecimento", example = "5")
+            @RequestParam(defaultValue = "5") int repeticoes,
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.benchmarkOrdenacao(estado, Math.max(1, Math.min(20, repeticoes)));
+    }
+
+    // ========== ENDPOINTS DE EVENTOS ==========
+
+    @Operation(summary = "Eventos de atualização (Server-Sent Events)",
+               description = "Mantém a conexão aberta e envia 'delta' quando novos dados são ingeridos: diferenças nas contagens por ano, mês, bioma e município de cada UF, mais o ranking atualizado. 'recarregar' pede para buscar tudo de novo (cliente atrasado ou reconexão após perder eventos)")
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(
+            @Parameter(description = "Enviado pelo navegador ao reconectar (último evento recebido)")
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoId) {
+        return eventosService.conectar(ultimoId);
     }
 
     // ========== ENDPOINTS DE PREVISÃO (MACHINE LEARNING) ==========
@@ -103,8 +215,10 @@ public class AnaliseController {
     @Operation(summary = "Tendência geral - Previsão para próximo ano", 
                description = "Utiliza regressão linear para prever o número de queimadas para o próximo ano. Retorna também a precisão (R²) e a tendência (CRESCENTE/DECRESCENTE/ESTÁVEL)")
     @GetMapping("/tendencia-geral")
-    public Map<String, Object> tendenciaGeral() {
-        return analiseService.tendenciaGeral();
+    public Map<String, Object> tendenciaGeral(
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.tendenciaGeral(estado);
     }
 
     @Operation(summary = "Tendência por intervalo - Previsão para múltiplos anos", 
@@ -112,7 +226,9 @@ public class AnaliseController {
     @GetMapping("/tendencia-intervalo")
     public Map<Integer, Map<String, Object>> tendenciaIntervalo(
             @Parameter(description = "Número de anos para frente a prever", example = "5")
-            @RequestParam(defaultValue = "5") int anos) {
-        return analiseService.tendenciaIntervalo(anos);
+            @RequestParam(defaultValue = "5") int anos,
+            @Parameter(description = "Sigla da UF (vazio = todos os estados)", example = "MG")
+            @RequestParam(required = false) String estado) {
+        return analiseService.tendenciaIntervalo(anos, estado);
     }
 }
\ No newline at end of file
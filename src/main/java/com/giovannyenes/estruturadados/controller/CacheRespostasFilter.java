@@ -0,0 +1,345 @@
+package com.giovannyenes.estruturadados.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.giovannyenes.estruturadados.service.ClusterService;
+import com.giovannyenes.estruturadados.service.ShardService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Cache das respostas de /api/analise já serializadas em bytes, por versão dos dados.
+ *
+ * 🧠 A primeira requisição de cada URL (caminho + parâmetros) passa pelo controller; o JSON
+ * gerado é guardado junto com uma cópia gzip e um ETag forte (hash do conteúdo). Enquanto a
+ * versão dos dados não mudar, as próximas são respondidas direto dos bytes:
+ * - If-None-Match igual ao ETag → 304 sem corpo
+ * - Accept-Encoding com gzip → variante pré-comprimida (ETag com sufixo -gz)
+ * - Cache-Control público para o navegador e proxies revalidarem com o ETag
+ *
+ * 🔸 Versão = ShardService.getVersao() (+ versões dos workers no modo cluster)
+ * 🔸 Só respostas 200 em JSON entram; erros, respostas parciais do cluster, o benchmark
+ *    (tempos variam) e o SSE não
+ * 🔸 LRU limitado por analise.cache.memoria-maxima-mb
+ * 🔸 Single-flight: requisições iguais que chegam enquanto a primeira ainda está no controller
+ *    (ex.: todos os painéis após um evento SSE) esperam por ela em vez de recalcular
+ */
+@Component
+public class CacheRespostasFilter extends OncePerRequestFilter {
+
+    /** Versão dos dados locais usada na resposta: o painel ignora deltas que ela já contém. */
+    public static final String CABECALHO_VERSAO = "X-Versao-Dados";
+
+    private static final String PREFIXO = "/api/analise/";
+    private static final Set<String> NAO_CACHEAVEIS = Set.of("/api/analise/ordenacao/benchmark", "/api/analise/eventos");
+
+    /** Resposta serializada e suas variantes. */
+    private record Resposta(byte[] corpo, byte[] gzip, String tipo, String etag, String etagGzip) {
+        long bytes() { return corpo.length + (gzip != null ? gzip.length : 0); }
+    }
+
+    private final ShardService shardService;
+    private final ClusterService clusterService;
+    private final HandlerMappingIntrospector introspector;
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+    private final boolean ativo;
+    private final long memoriaMaxima;
+    private final int gzipMinimo;
+    private final String cacheControl;
+
+    // Ordem de acesso: o primeiro é o menos usado recentemente
+    private final LinkedHashMap<String, Resposta> respostas = new LinkedHashMap<>(64, 0.75f, true);
+    private String versaoEmCache;
+    private long bytesEmCache;
+    // Versão + chave → resposta sendo gerada (null ao fim se não puder ser guardada)
+    private final Map<String, CompletableFuture<Resposta>> emGeracao = new ConcurrentHashMap<>();
+
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter naoModificados;
+    private final Counter agrupados;
+
+    public CacheRespostasFilter(ShardService shardService, ClusterService clusterService,
+                                HandlerMappingIntrospector introspector, MeterRegistry meterRegistry,
+                                @Value("${analise.cache.ativo:true}") boolean ativo,
+                                @Value("${analise.cache.memoria-maxima-mb:32}") long memoriaMaximaMb,
+                                @Value("${analise.cache.gzip-minimo-bytes:512}") int gzipMinimo,
+                                @Value("${analise.cache.max-age-segundos:0}") long maxAgeSegundos) {
+        this.shardService = shardService;
+        this.clusterService = clusterService;
+        this.introspector = introspector;
+        this.ativo = ativo;
+        this.memoriaMaxima = memoriaMaximaMb * 1024 * 1024;
+        this.gzipMinimo = gzipMinimo;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos))
+                .mustRevalidate().cachePublic().getHeaderValue();
+
+        this.acertos = Counter.builder("cache.respostas").tag("resultado", "acerto")
+                .description("Respostas servidas dos bytes em cache (acerto), geradas pelo controller (falta) ou 304")
+                .register(meterRegistry);
+        this.faltas = Counter.builder("cache.respostas").tag("resultado", "falta")
+                .description("Respostas servidas dos bytes em cache (acerto), geradas pelo controller (falta) ou 304")
+                .register(meterRegistry);
+        this.naoModificados = Counter.builder("cache.respostas").tag("resultado", "nao-modificado")
+                .description("Respostas servidas dos bytes em cache (acerto), geradas pelo controller (falta) ou 304")
+                .register(meterRegistry);
+        this.agrupados = Counter.builder("cache.respostas.agrupadas")
+                .description("Requisições que esperaram a geração da mesma resposta em vez de chamar o controller")
+                .register(meterRegistry);
+        Gauge.builder("cache.respostas.memoria", this, f -> f.bytesEmCache())
+                .description("Bytes das respostas em cache (JSON + gzip)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String caminho = request.getRequestURI();
+        return !ativo || !"GET".equals(request.getMethod())
+                || !caminho.startsWith(PREFIXO) || NAO_CACHEAVEIS.contains(caminho);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String versaoLocal = shardService.getVersao();
+        response.setHeader(CABECALHO_VERSAO, versaoLocal);
+        String versao = versaoAtual(versaoLocal);
+        if (versao == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String chave = chave(request);
+
+        Resposta resposta = buscar(versao, chave);
+        if (resposta == null) {
+            CompletableFuture<Resposta> geracao = new CompletableFuture<>();
+            String chaveGeracao = versao + " " + chave;
+            CompletableFuture<Resposta> emAndamento = emGeracao.putIfAbsent(chaveGeracao, geracao);
+            if (emAndamento == null) {
+                try {
+                    gerar(versaoLocal, versao, chave, request, response, chain, geracao);
+                } finally {
+                    emGeracao.remove(chaveGeracao, geracao);
+                    geracao.complete(null);
+                }
+                return;
+            }
+            resposta = aguardar(emAndamento);
+            if (resposta == null) {
+                // A primeira não gerou nada guardável (erro, parcial...): segue sem cache
+                chain.doFilter(request, response);
+                return;
+            }
+            agrupados.increment();
+        } else {
+            acertos.increment();
+        }
+
+        // 🧠 O controller não roda: aplica aqui o mesmo @CrossOrigin que ele aplicaria
+        if (CorsUtils.isCorsRequest(request)) {
+            CorsConfiguration cors = introspector.getCorsConfiguration(request);
+            if (cors != null && !corsProcessor.processRequest(cors, request, response)) return;
+        }
+        enviar(resposta, request, response);
+    }
+
+    /** Falta: passa pelo controller, guarda os bytes e libera quem esperava pela mesma chave. */
+    private void gerar(String versaoLocal, String versao, String chave, HttpServletRequest request,
+                       HttpServletResponse response, FilterChain chain, CompletableFuture<Resposta> geracao)
+            throws ServletException, IOException {
+        // Outra requisição pode ter guardado entre a busca e o registro da geração
+        Resposta pronta = buscar(versao, chave);
+        if (pronta != null) {
+            geracao.complete(pronta);
+            acertos.increment();
+            enviar(pronta, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, captura);
+
+        String tipo = captura.getContentType();
+        // Parcial (worker ignorado com tolerar-falhas): serve, mas não guarda
+        if (captura.getStatus() != HttpServletResponse.SC_OK || tipo == null || !tipo.contains("json")
+                || response.isCommitted() || captura.containsHeader(ClusterService.CABECALHO_PARCIAL)) {
+            captura.copyBodyToResponse();
+            return;
+        }
+        faltas.increment();
+        Resposta resposta = serializar(captura.getContentAsByteArray(), tipo);
+        // Dados trocados durante a geração: serve a resposta, mas não guarda bytes de uma versão antiga
+        if (versao.equals(versaoAtual(shardService.getVersao()))) guardar(versaoLocal, versao, chave, resposta);
+        geracao.complete(resposta);
+        enviar(resposta, request, response);
+    }
+
+    private Resposta aguardar(CompletableFuture<Resposta> geracao) throws IOException {
+        try {
+            return geracao.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido esperando a resposta em geração", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    // ============================================================
+    // 🔹 RESPOSTA
+    // ============================================================
+
+    private void enviar(Resposta resposta, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzip = resposta.gzip() != null && aceitaGzip(request);
+        String etag = gzip ? resposta.etagGzip() : resposta.etag();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (coincide(request.getHeader(HttpHeaders.IF_NONE_MATCH), resposta)) {
+            naoModificados.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] corpo = gzip ? resposta.gzip() : resposta.corpo();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(resposta.tipo());
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(corpo.length);
+        response.getOutputStream().write(corpo);
+    }
+
+    /** If-None-Match usa comparação fraca: W/ é ignorado e qualquer variante serve. */
+    private boolean coincide(String ifNoneMatch, Resposta resposta) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(resposta.etag()) || tag.equals(resposta.etagGzip())) return true;
+        }
+        return false;
+    }
+
+    private boolean aceitaGzip(HttpServletRequest request) {
+        Enumeration<String> valores = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (valores.hasMoreElements()) {
+            for (String codificacao : valores.nextElement().split(",")) {
+                String[] partes = codificacao.trim().split(";");
+                if (!partes[0].trim().equalsIgnoreCase("gzip")) continue;
+                // "gzip;q=0" recusa explicitamente
+                return partes.length < 2 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private Resposta serializar(byte[] corpo, String tipo) throws IOException {
+        String hash = hash(corpo);
+        byte[] gzip = null;
+        if (corpo.length >= gzipMinimo) {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(corpo.length / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(saida)) {
+                gz.write(corpo);
+            }
+            if (saida.size() < corpo.length) gzip = saida.toByteArray();
+        }
+        return new Resposta(corpo, gzip, tipo, "\"" + hash + "\"", "\"" + hash + "-gz\"");
+    }
+
+    private String hash(byte[] corpo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corpo), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ============================================================
+    // 🔹 ARMAZENAMENTO
+    // ============================================================
+
+    /**
+     * Versão local + dos workers; null se algum worker não respondeu (a requisição segue sem cache).
+     *
+     * 🔸 As versões dos workers vêm com TTL do ClusterService (sem chamada remota por requisição)
+     */
+    private String versaoAtual(String versaoLocal) {
+        if (!clusterService.isAtivo()) return versaoLocal;
+        List<String> versoes = clusterService.versoes();
+        return versoes != null ? versaoLocal + "|" + String.join("|", versoes) : null;
+    }
+
+    /** Caminho + parâmetros em ordem alfabética (a ordem na URL não cria outra entrada). */
+    private String chave(HttpServletRequest request) {
+        StringBuilder chave = new StringBuilder(request.getRequestURI());
+        char separador = '?';
+        for (Map.Entry<String, String[]> p : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String valor : p.getValue()) {
+                chave.append(separador).append(p.getKey()).append('=').append(valor);
+                separador = '&';
+            }
+        }
+        return chave.toString();
+    }
+
+    private synchronized Resposta buscar(String versao, String chave) {
+        return versao.equals(versaoEmCache) ? respostas.get(chave) : null;
+    }
+
+    /**
+     * 🔸 Só guarda se a versão local ainda é a atual: uma requisição lenta da versão anterior
+     *    não pode limpar o cache e voltar versaoEmCache para trás
+     */
+    private synchronized void guardar(String versaoLocal, String versao, String chave, Resposta resposta) {
+        if (!versaoLocal.equals(shardService.getVersao())) return;
+        if (!versao.equals(versaoEmCache)) {
+            if (versaoEmCache != null) System.out.println("🧹 Dados mudaram — cache de respostas descartado");
+            respostas.clear();
+            bytesEmCache = 0;
+            versaoEmCache = versao;
+        }
+        if (resposta.bytes() > memoriaMaxima) return;
+
+        Resposta anterior = respostas.put(chave, resposta);
+        bytesEmCache += resposta.bytes() - (anterior != null ? anterior.bytes() : 0);
+        Iterator<Resposta> lru = respostas.values().iterator();
+        while (bytesEmCache > memoriaMaxima && lru.hasNext()) {
+            bytesEmCache -= lru.next().bytes();
+            lru.remove();
+        }
+    }
+
+    private synchronized long bytesEmCache() {
+        return bytesEmCache;
+    }
+}
@@ -0,0 +1,97 @@
+package com.giovannyenes.estruturadados.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.giovannyenes.estruturadados.service.AnaliseService;
+import com.giovannyenes.estruturadados.service.Dimensao;
+import com.giovannyenes.estruturadados.service.ShardService;
+import com.giovannyenes.estruturadados.service.SketchService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/interno")
+@Tag(name = "Agregados Parciais", description = "Endpoints usados pelo coordenador no modo cluster. Consideram apenas os shards desta instância")
+public class InternoController {
+
+    private final AnaliseService analiseService;
+    private final ShardService shardService;
+    private final SketchService sketchService;
+
+    public InternoController(AnaliseService analiseService, ShardService shardService, SketchService sketchService) {
+        this.analiseService = analiseService;
+        this.shardService = shardService;
+        this.sketchService = sketchService;
+    }
+
+    @Operation(summary = "Contagem parcial por dimensão",
+               description = "Retorna a quantidade de focos por chave (ano, mes, estacao, bioma, municipio ou foco) nos shards locais")
+    @GetMapping("/contagem")
+    public Map<?, Long> contagem(
+            @Parameter(description = "Dimensão de agrupamento", example = "ano")
+            @RequestParam String dimensao,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Integer ano) {
+        return analiseService.contarLocal("interno", estado, ano, dimensao(dimensao));
+    }
+
+    @Operation(summary = "Quantidade parcial de chaves distintas",
+               description = "Retorna quantas chaves distintas a dimensão tem nos shards locais")
+    @GetMapping("/distintos")
+    public long distintos(
+            @Parameter(description = "Dimensão de agrupamento", example = "foco")
+            @RequestParam String dimensao,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Integer ano) {
+        return analiseService.contarLocal("interno", estado, ano, dimensao(dimensao)).size();
+    }
+
+    @Operation(summary = "Focos por dia nos shards locais",
+               description = "Retorna a quantidade de focos de cada dia em cada shard local, sem ordem definida")
+    @GetMapping("/focos-por-dia")
+    public List<Long> focosPorDia(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Integer ano) {
+        return analiseService.focosPorDiaLocal(estado, ano);
+    }
+
+    @Operation(summary = "Sketches dos shards locais",
+               description = "Retorna os registradores do HyperLogLog, os contadores do Space-Saving e os baldes do DDSketch mesclados dos shards locais (vazio sem shards). O coordenador os mescla no modo aproximado")
+    @GetMapping("/sketch")
+    public SketchService.Parcial sketch(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Integer ano) {
+        return sketchService.parcialLocal(estado, ano);
+    }
+
+    @Operation(summary = "Estados dos shards locais")
+    @GetMapping("/estados")
+    public List<String> estados() {
+        return analiseService.listarEstadosLocais();
+    }
+
+    @Operation(summary = "Versão dos dados locais",
+               description = "Muda quando algum arquivo desta instância é alterado. O coordenador a usa para invalidar o cache de respostas")
+    @GetMapping("/versao")
+    public String versao() {
+        return shardService.getVersao();
+    }
+
+    private Dimensao<?> dimensao(String nome) {
+        try {
+            return Dimensao.porNome(nome);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
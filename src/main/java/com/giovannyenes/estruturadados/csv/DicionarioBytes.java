@@ -0,0 +1,74 @@
+package com.giovannyenes.estruturadados.csv;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário de valores categóricos (país, estado, município, bioma) indexado pelos bytes crus.
+ *
+ * 🔸 Estrutura: tabela hash com endereçamento aberto (sondagem linear)
+ * 🔸 Cada valor distinto é decodificado uma única vez por arquivo; as linhas seguintes reutilizam a mesma String
+ * 🔸 Cada parser tem a sua tabela (sem trava por célula); o valor novo passa por {@link #CANONICOS},
+ * compartilhado entre todos os parsers, então arquivos carregados em paralelo também
+ * devolvem a mesma instância para o mesmo município/bioma
+ */
+class DicionarioBytes {
+
+    // Poucos milhares de valores (estados, biomas, municípios): não precisa de limite
+    private static final ConcurrentHashMap<String, String> CANONICOS = new ConcurrentHashMap<>();
+
+    private byte[][] chaves = new byte[256][];
+    private String[] valores = new String[256];
+    private int tamanho;
+
+    /** Retorna a String canônica para os bytes [inicio, fim) do vetor. */
+    String obter(byte[] bytes, int inicio, int fim) {
+        int hash = hash(bytes, inicio, fim);
+        int mascara = chaves.length - 1;
+        int i = hash & mascara;
+        while (chaves[i] != null) {
+            if (Arrays.equals(chaves[i], 0, chaves[i].length, bytes, inicio, fim)) return valores[i];
+            i = (i + 1) & mascara;
+        }
+
+        byte[] chave = Arrays.copyOfRange(bytes, inicio, fim);
+        String valor = canonico(new String(chave, StandardCharsets.UTF_8));
+        chaves[i] = chave;
+        valores[i] = valor;
+        if (++tamanho * 2 > chaves.length) redimensionar();
+        return valor;
+    }
+
+    int tamanho() { return tamanho; }
+
+    private static String canonico(String valor) {
+        String existente = CANONICOS.putIfAbsent(valor, valor);
+        return existente != null ? existente : valor;
+    }
+
+    private void redimensionar() {
+        byte[][] antigasChaves = chaves;
+        String[] antigosValores = valores;
+        chaves = new byte[antigasChaves.length * 2][];
+        valores = new String[antigasChaves.length * 2];
+        int mascara = chaves.length - 1;
+        for (int j = 0; j < antigasChaves.length; j++) {
+            byte[] chave = antigasChaves[j];
+            if (chave == null) continue;
+            int i = hash(chave, 0, chave.length) & mascara;
+            while (chaves[i] != null) i = (i + 1) & mascara;
+            chaves[i] = chave;
+            valores[i] = antigosValores[j];
+        }
+    }
+
+    private static int hash(byte[] bytes, int inicio, int fim) {
+        int h = 0x811c9dc5;                      // FNV-1a 32 bits
+        for (int i = inicio; i < fim; i++) {
+            h ^= bytes[i];
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
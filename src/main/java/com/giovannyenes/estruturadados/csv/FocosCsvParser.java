@@ -0,0 +1,335 @@
+package com.giovannyenes.estruturadados.csv;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import com.giovannyenes.estruturadados.model.DadosDesmatamento;
+
+/**
+ * Leitor dos arquivos focos_br_*_ref_YYYY.csv direto sobre os bytes do arquivo.
+ *
+ * 🧠 Em vez de criar um String[] e uma String por célula (OpenCSV), o arquivo é mapeado
+ * em memória, copiado em blocos para um byte[] (acesso a vetor é bem mais barato que
+ * MappedByteBuffer.get byte a byte) e cada linha é percorrida uma única vez:
+ * - lat/lon → double a partir dos dígitos (sem String intermediária)
+ * - data_pas → dia epoch (int) a partir dos dígitos de yyyy-MM-dd[ HH:mm:ss]
+ * - id_bdq → long; foco_id (UUID) → dois longs a partir dos dígitos hexadecimais
+ * - pais, estado, municipio, bioma → String canônica via {@link DicionarioBytes}
+ *
+ * Nenhum objeto é criado por linha além do próprio registro.
+ * Linhas fora do formato esperado (aspas, decimais longos, outros formatos de data,
+ * ids não numéricos ou fora do padrão UUID, colunas faltando) são entregues,
+ * decodificadas, ao consumidor de fallback.
+ */
+public class FocosCsvParser {
+
+    private static final int COLUNAS = 9;
+    private static final int DATA_INVALIDA = Integer.MIN_VALUE;
+    private static final long DIAS_0000_A_1970 = 719_528;   // mesma constante de LocalDate.toEpochDay
+    private static final long JANELA = 1L << 30;   // mapeia no máximo 1 GiB por vez
+    private static final int BLOCO = 1 << 20;      // copiado do mapeamento para um byte[] de 1 MiB por vez
+    private static final byte[] HEXADECIMAL = new byte[256];   // valor do dígito ou -1
+    static {
+        Arrays.fill(HEXADECIMAL, (byte) -1);
+        for (int i = 0; i < 10; i++) HEXADECIMAL['0' + i] = (byte) i;
+        for (int i = 0; i < 6; i++) {
+            HEXADECIMAL['a' + i] = (byte) (10 + i);
+            HEXADECIMAL['A' + i] = (byte) (10 + i);
+        }
+    }
+    private static final double[] POTENCIAS_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Um por parser (sem sincronização); as Strings canônicas são compartilhadas entre arquivos
+    private final DicionarioBytes dicionario = new DicionarioBytes();
+
+    // Limites das colunas da linha atual: inicio[i], fim[i] (já sem espaços)
+    private final int[] inicio = new int[COLUNAS];
+    private final int[] fim = new int[COLUNAS];
+    // Resultado de lerUuid (evita devolver um objeto por linha)
+    private long uuidAlto;
+    private long uuidBaixo;
+    // Mês da última data lida (lerData)
+    private int anoAnterior = -1;
+    private int mesAnterior = -1;
+    private int primeiroDiaDoMes;
+    private int diasNoMesAnterior;
+    private byte[] bloco;
+
+    /**
+     * Lê todas as linhas de dados (ignora o cabeçalho).
+     *
+     * @param registro recebe cada linha convertida pelo caminho rápido
+     * @param fallback recebe o texto das linhas que o caminho rápido não reconhece
+     * @return quantidade de linhas de dados não vazias
+     */
+    public long ler(Path arquivo, Consumer<DadosDesmatamento> registro, Consumer<String> fallback) throws IOException {
+        long linhas = 0;
+        boolean cabecalho = true;
+        bloco = new byte[BLOCO];
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            long copiados = 0;          // bytes do arquivo já copiados para o bloco
+            MappedByteBuffer janela = null;
+            long inicioJanela = 0;
+            int cheio = 0;              // bytes válidos no bloco
+
+            while (true) {
+                // Completa o bloco a partir do mapeamento (uma cópia em massa por vez)
+                while (cheio < bloco.length && copiados < tamanho) {
+                    if (janela == null || copiados == inicioJanela + janela.capacity()) {
+                        inicioJanela = copiados;
+                        janela = canal.map(FileChannel.MapMode.READ_ONLY, copiados, Math.min(JANELA, tamanho - copiados));
+                    }
+                    int n = (int) Math.min(bloco.length - cheio, inicioJanela + janela.capacity() - copiados);
+                    janela.get((int) (copiados - inicioJanela), bloco, cheio, n);
+                    cheio += n;
+                    copiados += n;
+                }
+                boolean fimArquivo = copiados == tamanho;
+
+                int ini = 0;
+                while (ini < cheio) {
+                    int quebra = proximaQuebra(ini, cheio);
+                    if (quebra == cheio && !fimArquivo) break; // linha continua no próximo bloco
+
+                    int fimLinha = quebra;
+                    if (fimLinha > ini && bloco[fimLinha - 1] == '\r') fimLinha--;
+
+                    if (cabecalho) {
+                        cabecalho = false;
+                    } else if (fimLinha > ini) {
+                        linhas++;
+                        DadosDesmatamento d = converter(ini, fimLinha);
+                        if (d != null) registro.accept(d);
+                        else fallback.accept(texto(ini, fimLinha));
+                    }
+                    ini = quebra + 1;
+                }
+                if (fimArquivo) break;
+
+                if (ini == 0) {
+                    // Uma linha ocupa o bloco inteiro: dobra o bloco
+                    if (bloco.length >= JANELA) throw new IOException("Linha maior que " + JANELA + " bytes em " + arquivo);
+                    bloco = Arrays.copyOf(bloco, bloco.length * 2);
+                } else {
+                    System.arraycopy(bloco, ini, bloco, 0, cheio - ini);
+                    cheio -= ini;
+                }
+            }
+        } finally {
+            bloco = null;
+        }
+        return linhas;
+    }
+
+    /** Quantidade de valores categóricos distintos vistos até agora. */
+    public int valoresNoDicionario() {
+        return dicionario.tamanho();
+    }
+
+    // ============================================================
+    // 🔹 CAMINHO RÁPIDO
+    // ============================================================
+
+    /** Converte a linha [ini, fimLinha) ou retorna null se ela precisar do caminho tradicional. */
+    private DadosDesmatamento converter(int ini, int fimLinha) {
+        if (!separarColunas(ini, fimLinha)) return null;
+
+        double latitude = lerDecimal(inicio[2], fim[2]);
+        double longitude = lerDecimal(inicio[3], fim[3]);
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) return null;
+
+        int dia = lerData(inicio[4], fim[4]);
+        if (dia == DATA_INVALIDA) return null;
+
+        long idBdq = lerInteiro(inicio[0], fim[0]);
+        if (idBdq < 0 || !lerUuid(inicio[1], fim[1])) return null;
+
+        return new DadosDesmatamento(
+                idBdq, uuidAlto, uuidBaixo, latitude, longitude,
+                dicionario.obter(bloco, inicio[5], fim[5]),
+                dicionario.obter(bloco, inicio[6], fim[6]),
+                dicionario.obter(bloco, inicio[7], fim[7]),
+                dicionario.obter(bloco, inicio[8], fim[8]),
+                dia
+        );
+    }
+
+    /** Preenche inicio/fim das 9 primeiras colunas; colunas extras são ignoradas. */
+    private boolean separarColunas(int ini, int fimLinha) {
+        int coluna = 0;
+        int inicioColuna = ini;
+        for (int i = ini; i <= fimLinha && coluna < COLUNAS; i++) {
+            byte b = i < fimLinha ? bloco[i] : (byte) ',';
+            if (b == '"') return false;                 // campo entre aspas: deixa para o OpenCSV
+            if (b != ',') continue;
+
+            int a = inicioColuna, z = i;
+            while (a < z && espaco(a)) a++;
+            while (z > a && espaco(z - 1)) z--;
+            inicio[coluna] = a;
+            fim[coluna] = z;
+            coluna++;
+            inicioColuna = i + 1;
+        }
+        return coluna == COLUNAS;
+    }
+
+    /**
+     * Decimal simples ([-+]ddd.ddd) → double, ou NaN se não for possível garantir o mesmo
+     * resultado de Double.parseDouble (mantissa até 15 dígitos e escala até 22).
+     */
+    private double lerDecimal(int a, int z) {
+        if (a >= z) return Double.NaN;
+        boolean negativo = false;
+        byte b = bloco[a];
+        if (b == '-' || b == '+') {
+            negativo = b == '-';
+            a++;
+        }
+
+        long mantissa = 0;
+        int significativos = 0, escala = -1;
+        for (int i = a; i < z; i++) {
+            b = bloco[i];
+            if (b >= '0' && b <= '9') {
+                if (mantissa == 0 && b == '0' && escala < 0) continue; // zeros à esquerda
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) significativos++;
+                if (escala >= 0) escala++;
+            } else if (b == '.' && escala < 0) {
+                escala = 0;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (z - a == 0 || (z - a == 1 && escala == 0)) return Double.NaN;
+        if (significativos > 15 || escala > 22) return Double.NaN;
+
+        double valor = escala > 0 ? mantissa / POTENCIAS_10[escala] : mantissa;
+        return negativo ? -valor : valor;
+    }
+
+    /** yyyy-MM-dd ou yyyy-MM-dd HH:mm:ss → dia epoch; outros formatos e datas inexistentes → DATA_INVALIDA. */
+    private int lerData(int a, int z) {
+        int n = z - a;
+        if (n != 10 && n != 19) return DATA_INVALIDA;
+        if (bloco[a + 4] != '-' || bloco[a + 7] != '-') return DATA_INVALIDA;
+
+        int ano = digitos(a, 4), mes = digitos(a + 5, 2), dia = digitos(a + 8, 2);
+        if (ano < 0 || mes < 1 || mes > 12) return DATA_INVALIDA;
+        if (ano != anoAnterior || mes != mesAnterior) {
+            // Linhas vizinhas quase sempre caem no mesmo mês: as contas do calendário ficam para a troca
+            anoAnterior = ano;
+            mesAnterior = mes;
+            primeiroDiaDoMes = diaEpoch(ano, mes, 1);
+            diasNoMesAnterior = diasNoMes(ano, mes);
+        }
+        if (dia < 1 || dia > diasNoMesAnterior) return DATA_INVALIDA;
+
+        if (n == 19) {
+            if (bloco[a + 10] != ' ' || bloco[a + 13] != ':' || bloco[a + 16] != ':') return DATA_INVALIDA;
+            int h = digitos(a + 11, 2), m = digitos(a + 14, 2), s = digitos(a + 17, 2);
+            if (h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59) return DATA_INVALIDA;
+        }
+        return primeiroDiaDoMes + dia - 1;
+    }
+
+    /** Mesma conta de LocalDate.toEpochDay (calendário gregoriano proléptico, ano ≥ 0). */
+    private static int diaEpoch(int ano, int mes, int dia) {
+        long total = 365L * ano + (ano + 3) / 4 - (ano + 99) / 100 + (ano + 399) / 400
+                + (367L * mes - 362) / 12 + dia - 1;
+        if (mes > 2) total -= bissexto(ano) ? 1 : 2;
+        return (int) (total - DIAS_0000_A_1970);
+    }
+
+    private static int diasNoMes(int ano, int mes) {
+        return switch (mes) {
+            case 2 -> bissexto(ano) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean bissexto(int ano) {
+        return (ano & 3) == 0 && (ano % 100 != 0 || ano % 400 == 0);
+    }
+
+    /** Inteiro sem sinal de 1 a 18 dígitos (não estoura um long), ou -1. */
+    private long lerInteiro(int a, int z) {
+        if (a >= z || z - a > 18) return -1;
+        long valor = 0;
+        for (int i = a; i < z; i++) {
+            byte b = bloco[i];
+            if (b < '0' || b > '9') return -1;
+            valor = valor * 10 + (b - '0');
+        }
+        return valor;
+    }
+
+    /**
+     * UUID no formato 8-4-4-4-12 (hexadecimal, maiúsculas ou minúsculas) → uuidAlto/uuidBaixo,
+     * com os mesmos bits de UUID.fromString. false se o texto não estiver nesse formato.
+     */
+    private boolean lerUuid(int a, int z) {
+        if (z - a != 36) return false;
+        if (bloco[a + 8] != '-' || bloco[a + 13] != '-' || bloco[a + 18] != '-' || bloco[a + 23] != '-') return false;
+        long p1 = hexadecimal(a, 8), p2 = hexadecimal(a + 9, 4), p3 = hexadecimal(a + 14, 4);
+        long p4 = hexadecimal(a + 19, 4), p5a = hexadecimal(a + 24, 4), p5b = hexadecimal(a + 28, 8);
+        if ((p1 | p2 | p3 | p4 | p5a | p5b) < 0) return false;
+        uuidAlto = p1 << 32 | p2 << 16 | p3;
+        uuidBaixo = p4 << 48 | p5a << 32 | p5b;
+        return true;
+    }
+
+    /** Até 8 dígitos hexadecimais → valor (cabe em 32 bits), ou -1 se algum não for hexadecimal. */
+    private long hexadecimal(int a, int quantidade) {
+        long valor = 0;
+        int invalido = 0;
+        for (int i = a; i < a + quantidade; i++) {
+            int h = HEXADECIMAL[bloco[i] & 0xff];
+            invalido |= h;          // -1 liga o bit de sinal
+            valor = valor << 4 | (h & 0xf);
+        }
+        return invalido < 0 ? -1 : valor;
+    }
+
+    private int digitos(int a, int quantidade) {
+        int valor = 0;
+        for (int i = a; i < a + quantidade; i++) {
+            byte b = bloco[i];
+            if (b < '0' || b > '9') return -1;
+            valor = valor * 10 + (b - '0');
+        }
+        return valor;
+    }
+
+    // ============================================================
+    // 🔹 MÉTODOS AUXILIARES
+    // ============================================================
+
+    private int proximaQuebra(int ini, int comprimento) {
+        int i = ini;
+        while (i < comprimento && bloco[i] != '\n') i++;
+        return i;
+    }
+
+    private String texto(int a, int z) {
+        return new String(bloco, a, z - a, StandardCharsets.UTF_8);
+    }
+
+    /** Mesmo critério de String.trim(): bytes até ' ' (sem sinal, para não cortar UTF-8). */
+    private boolean espaco(int i) {
+        return (bloco[i] & 0xff) <= ' ';
+    }
+}
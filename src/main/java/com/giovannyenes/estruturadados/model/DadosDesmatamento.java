@@ -1,60 +1,61 @@
 package com.giovannyenes.estruturadados.model;
 
 import java.time.LocalDate;
-
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
-
-
-@Entity
-@Table(name = "area_desmatada")
+import java.util.UUID;
+
+/**
+ * Um foco de queimada.
+ *
+ * 🔸 Campos por registro em primitivos: id_bdq em long, foco_id (UUID) em dois longs e a data
+ *    em dias desde 1970-01-01 (LocalDate.toEpochDay). Nenhuma String ou LocalDate por linha
+ * 🔸 pais, estado, municipio e bioma são Strings canônicas, compartilhadas entre registros
+ */
 public class DadosDesmatamento {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    private Long id;
-
-    private String idBdq;    // ID_BDQ
-    private String focoId;   // FOCO_ID
+    private long idBdq;         // ID_BDQ
+    private long focoIdAlto;    // FOCO_ID: 64 bits mais significativos do UUID
+    private long focoIdBaixo;   // FOCO_ID: 64 bits menos significativos
     private double latitude;
     private double longitude;
     private String pais;
     private String estado;
     private String municipio;
     private String bioma;
-    private LocalDate data; // agora guardamos a data completa
+    private int dia;            // data como dia epoch
 
     public DadosDesmatamento() {}
 
-    public DadosDesmatamento(String idBdq, String focoId, double latitude, double longitude,
-                             String pais, String estado, String municipio, String bioma, LocalDate data) {
+    public DadosDesmatamento(long idBdq, long focoIdAlto, long focoIdBaixo, double latitude, double longitude,
+                             String pais, String estado, String municipio, String bioma, int dia) {
         this.idBdq = idBdq;
-        this.focoId = focoId;
+        this.focoIdAlto = focoIdAlto;
+        this.focoIdBaixo = focoIdBaixo;
         this.latitude = latitude;
         this.longitude = longitude;
         this.pais = pais;
         this.estado = estado;
         this.municipio = municipio;
         this.bioma = bioma;
-        this.data = data;
+        this.dia = dia;
     }
 
     // Getters e Setters
 
-    public Long getId() { return id; }
+    public long getIdBdq() { return idBdq; }
 
-    public void setId(Long id) { this.id = id; }
+    public void setIdBdq(long idBdq) { this.idBdq = idBdq; }
 
-    public String getIdBdq() { return idBdq; }
+    public long getFocoIdAlto() { return focoIdAlto; }
 
-    public void setIdBdq(String idBdq) { this.idBdq = idBdq; }
+    public long getFocoIdBaixo() { return focoIdBaixo; }
 
-    public String getFocoId() { return focoId; }
+    /** foco_id como UUID (cria o objeto a cada chamada). */
+    public UUID getFocoId() { return new UUID(focoIdAlto, focoIdBaixo); }
 
-    public void setFocoId(String focoId) { this.focoId = focoId; }
+    public void setFocoId(UUID focoId) {
+        this.focoIdAlto = focoId.getMostSignificantBits();
+        this.focoIdBaixo = focoId.getLeastSignificantBits();
+    }
 
     public double getLatitude() { return latitude; }
 
@@ -80,7 +81,10 @@ public class DadosDesmatamento {
 
     public void setBioma(String bioma) { this.bioma = bioma; }
 
-    public LocalDate getData() { return data; }
+    /** Dias desde 1970-01-01. */
+    public int getDia() { return dia; }
+
+    public LocalDate getData() { return LocalDate.ofEpochDay(dia); }
 
-    public void setData(LocalDate data) { this.data = data; }
+    public void setData(LocalDate data) { this.dia = (int) data.toEpochDay(); }
 }
@@ -0,0 +1,25 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+/**
+ * Estratégia de ordenação usada pelas análises.
+ *
+ * 🔸 Chaves numéricas são ordenadas como long[] (sem boxing); chaves compostas, como
+ *    (contagem, município), são empacotadas em um único long pelo chamador
+ * 🔸 Textos (biomas, estados) usam a ordem natural de String
+ * 🔸 Implementações são @Component: basta criar uma nova classe para ela aparecer
+ *    no parâmetro "algoritmo" dos endpoints e no benchmark
+ */
+public interface AlgoritmoOrdenacao {
+
+    /** Nome usado no parâmetro "algoritmo" (ex.: introsort). */
+    String getNome();
+
+    /** Descrição curta com a complexidade, exibida no benchmark. */
+    String getDescricao();
+
+    /** Ordena o vetor em ordem crescente. */
+    void ordenar(long[] valores);
+
+    /** Ordena o vetor em ordem crescente (ordem natural). */
+    void ordenar(String[] valores);
+}
@@ -0,0 +1,64 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+/** Operações compartilhadas pelos algoritmos (trocas, ordenação por inserção, mediana). */
+final class Auxiliares {
+
+    /** Abaixo deste tamanho a ordenação por inserção é mais rápida que dividir de novo. */
+    static final int LIMITE_INSERCAO = 16;
+
+    private Auxiliares() {}
+
+    static void trocar(long[] v, int i, int j) {
+        long t = v[i];
+        v[i] = v[j];
+        v[j] = t;
+    }
+
+    static void trocar(String[] v, int i, int j) {
+        String t = v[i];
+        v[i] = v[j];
+        v[j] = t;
+    }
+
+    /** Ordenação por inserção no intervalo [lo, hi]. */
+    static void insercao(long[] v, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long x = v[i];
+            int j = i - 1;
+            while (j >= lo && v[j] > x) {
+                v[j + 1] = v[j];
+                j--;
+            }
+            v[j + 1] = x;
+        }
+    }
+
+    static void insercao(String[] v, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            String x = v[i];
+            int j = i - 1;
+            while (j >= lo && v[j].compareTo(x) > 0) {
+                v[j + 1] = v[j];
+                j--;
+            }
+            v[j + 1] = x;
+        }
+    }
+
+    /** Deixa a mediana de v[lo], v[meio], v[hi] na posição meio e retorna o índice. */
+    static int medianaDeTres(long[] v, int lo, int hi) {
+        int meio = lo + (hi - lo) / 2;
+        if (v[meio] < v[lo]) trocar(v, meio, lo);
+        if (v[hi] < v[lo]) trocar(v, hi, lo);
+        if (v[hi] < v[meio]) trocar(v, hi, meio);
+        return meio;
+    }
+
+    static int medianaDeTres(String[] v, int lo, int hi) {
+        int meio = lo + (hi - lo) / 2;
+        if (v[meio].compareTo(v[lo]) < 0) trocar(v, meio, lo);
+        if (v[hi].compareTo(v[lo]) < 0) trocar(v, hi, lo);
+        if (v[hi].compareTo(v[meio]) < 0) trocar(v, hi, meio);
+        return meio;
+    }
+}
@@ -0,0 +1,133 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * IntroSort (Musser): QuickSort que troca para HeapSort quando a recursão fica funda demais.
+ *
+ * 🔸 Partição de Hoare com mediana de três (valores iguais ficam dos dois lados → equilíbrio)
+ * 🔸 Profundidade máxima 2·log₂(n) → pior caso O(n log n) garantido
+ * 🔸 Intervalos pequenos → ordenação por inserção
+ */
+@Component
+public class IntroSort implements AlgoritmoOrdenacao {
+
+    @Override
+    public String getNome() { return "introsort"; }
+
+    @Override
+    public String getDescricao() { return "QuickSort + HeapSort + inserção — O(n log n) no pior caso"; }
+
+    @Override
+    public void ordenar(long[] v) {
+        if (v.length > 1) ordenar(v, 0, v.length - 1, profundidadeMaxima(v.length));
+    }
+
+    @Override
+    public void ordenar(String[] v) {
+        if (v.length > 1) ordenar(v, 0, v.length - 1, profundidadeMaxima(v.length));
+    }
+
+    private int profundidadeMaxima(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(n));
+    }
+
+    // ============================================================
+    // 🔹 long[]
+    // ============================================================
+
+    private void ordenar(long[] v, int lo, int hi, int profundidade) {
+        while (hi - lo > Auxiliares.LIMITE_INSERCAO) {
+            if (profundidade-- == 0) {
+                heapSort(v, lo, hi);
+                return;
+            }
+            long pivo = v[Auxiliares.medianaDeTres(v, lo, hi)];
+            int i = lo - 1, j = hi + 1;
+            while (true) {
+                do i++; while (v[i] < pivo);
+                do j--; while (v[j] > pivo);
+                if (i >= j) break;
+                Auxiliares.trocar(v, i, j);
+            }
+            // [lo, j] ≤ pivô ≤ [j + 1, hi]
+            if (j - lo < hi - j) {
+                ordenar(v, lo, j, profundidade);
+                lo = j + 1;
+            } else {
+                ordenar(v, j + 1, hi, profundidade);
+                hi = j;
+            }
+        }
+        Auxiliares.insercao(v, lo, hi);
+    }
+
+    private void heapSort(long[] v, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) descer(v, lo, i, n);
+        for (int fim = n - 1; fim > 0; fim--) {
+            Auxiliares.trocar(v, lo, lo + fim);
+            descer(v, lo, 0, fim);
+        }
+    }
+
+    private void descer(long[] v, int base, int i, int n) {
+        while (true) {
+            int maior = i, esq = 2 * i + 1, dir = esq + 1;
+            if (esq < n && v[base + esq] > v[base + maior]) maior = esq;
+            if (dir < n && v[base + dir] > v[base + maior]) maior = dir;
+            if (maior == i) return;
+            Auxiliares.trocar(v, base + i, base + maior);
+            i = maior;
+        }
+    }
+
+    // ============================================================
+    // 🔹 String[]
+    // ============================================================
+
+    private void ordenar(String[] v, int lo, int hi, int profundidade) {
+        while (hi - lo > Auxiliares.LIMITE_INSERCAO) {
+            if (profundidade-- == 0) {
+                heapSort(v, lo, hi);
+                return;
+            }
+            String pivo = v[Auxiliares.medianaDeTres(v, lo, hi)];
+            int i = lo - 1, j = hi + 1;
+            while (true) {
+                do i++; while (v[i].compareTo(pivo) < 0);
+                do j--; while (v[j].compareTo(pivo) > 0);
+                if (i >= j) break;
+                Auxiliares.trocar(v, i, j);
+            }
+            if (j - lo < hi - j) {
+                ordenar(v, lo, j, profundidade);
+                lo = j + 1;
+            } else {
+                ordenar(v, j + 1, hi, profundidade);
+                hi = j;
+            }
+        }
+        Auxiliares.insercao(v, lo, hi);
+    }
+
+    private void heapSort(String[] v, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) descer(v, lo, i, n);
+        for (int fim = n - 1; fim > 0; fim--) {
+            Auxiliares.trocar(v, lo, lo + fim);
+            descer(v, lo, 0, fim);
+        }
+    }
+
+    private void descer(String[] v, int base, int i, int n) {
+        while (true) {
+            int maior = i, esq = 2 * i + 1, dir = esq + 1;
+            if (esq < n && v[base + esq].compareTo(v[base + maior]) > 0) maior = esq;
+            if (dir < n && v[base + dir].compareTo(v[base + maior]) > 0) maior = dir;
+            if (maior == i) return;
+            Auxiliares.trocar(v, base + i, base + maior);
+            i = maior;
+        }
+    }
+}
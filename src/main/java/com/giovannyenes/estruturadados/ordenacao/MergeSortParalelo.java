@@ -0,0 +1,136 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * MergeSort estável com as metades ordenadas em paralelo (Fork/Join).
+ *
+ * 🔸 Intervalos acima de LIMITE_PARALELO viram tarefas no ForkJoinPool comum
+ * 🔸 Abaixo disso o MergeSort é sequencial; abaixo de LIMITE_INSERCAO, inserção
+ * 🔸 Se as metades já estão em ordem a intercalação é pulada → entrada ordenada custa O(n)
+ */
+@Component
+public class MergeSortParalelo implements AlgoritmoOrdenacao {
+
+    /** Abaixo deste tamanho dividir em tarefas custa mais do que ordenar direto. */
+    private static final int LIMITE_PARALELO = 1 << 13;
+
+    @Override
+    public String getNome() { return "mergesort-paralelo"; }
+
+    @Override
+    public String getDescricao() { return "MergeSort estável com Fork/Join — O(n log n), O(n) de memória extra"; }
+
+    @Override
+    public void ordenar(long[] v) {
+        if (v.length < 2) return;
+        long[] aux = new long[v.length];
+        if (v.length <= LIMITE_PARALELO) ordenar(v, aux, 0, v.length - 1);
+        else ForkJoinPool.commonPool().invoke(new TarefaLong(v, aux, 0, v.length - 1));
+    }
+
+    @Override
+    public void ordenar(String[] v) {
+        if (v.length < 2) return;
+        String[] aux = new String[v.length];
+        if (v.length <= LIMITE_PARALELO) ordenar(v, aux, 0, v.length - 1);
+        else ForkJoinPool.commonPool().invoke(new TarefaString(v, aux, 0, v.length - 1));
+    }
+
+    // ============================================================
+    // 🔹 long[]
+    // ============================================================
+
+    private static final class TarefaLong extends RecursiveAction {
+        private final long[] v, aux;
+        private final int lo, hi;
+
+        TarefaLong(long[] v, long[] aux, int lo, int hi) {
+            this.v = v; this.aux = aux; this.lo = lo; this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= LIMITE_PARALELO) {
+                ordenar(v, aux, lo, hi);
+                return;
+            }
+            int meio = lo + (hi - lo) / 2;
+            invokeAll(new TarefaLong(v, aux, lo, meio), new TarefaLong(v, aux, meio + 1, hi));
+            intercalar(v, aux, lo, meio, hi);
+        }
+    }
+
+    private static void ordenar(long[] v, long[] aux, int lo, int hi) {
+        if (hi - lo <= Auxiliares.LIMITE_INSERCAO) {
+            Auxiliares.insercao(v, lo, hi);
+            return;
+        }
+        int meio = lo + (hi - lo) / 2;
+        ordenar(v, aux, lo, meio);
+        ordenar(v, aux, meio + 1, hi);
+        intercalar(v, aux, lo, meio, hi);
+    }
+
+    private static void intercalar(long[] v, long[] aux, int lo, int meio, int hi) {
+        if (v[meio] <= v[meio + 1]) return;
+        System.arraycopy(v, lo, aux, lo, hi - lo + 1);
+        int i = lo, j = meio + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > meio) v[k] = aux[j++];
+            else if (j > hi) v[k] = aux[i++];
+            else if (aux[j] < aux[i]) v[k] = aux[j++];
+            else v[k] = aux[i++];
+        }
+    }
+
+    // ============================================================
+    // 🔹 String[]
+    // ============================================================
+
+    private static final class TarefaString extends RecursiveAction {
+        private final String[] v, aux;
+        private final int lo, hi;
+
+        TarefaString(String[] v, String[] aux, int lo, int hi) {
+            this.v = v; this.aux = aux; this.lo = lo; this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= LIMITE_PARALELO) {
+                ordenar(v, aux, lo, hi);
+                return;
+            }
+            int meio = lo + (hi - lo) / 2;
+            invokeAll(new TarefaString(v, aux, lo, meio), new TarefaString(v, aux, meio + 1, hi));
+            intercalar(v, aux, lo, meio, hi);
+        }
+    }
+
+    private static void ordenar(String[] v, String[] aux, int lo, int hi) {
+        if (hi - lo <= Auxiliares.LIMITE_INSERCAO) {
+            Auxiliares.insercao(v, lo, hi);
+            return;
+        }
+        int meio = lo + (hi - lo) / 2;
+        ordenar(v, aux, lo, meio);
+        ordenar(v, aux, meio + 1, hi);
+        intercalar(v, aux, lo, meio, hi);
+    }
+
+    private static void intercalar(String[] v, String[] aux, int lo, int meio, int hi) {
+        if (v[meio].compareTo(v[meio + 1]) <= 0) return;
+        System.arraycopy(v, lo, aux, lo, hi - lo + 1);
+        int i = lo, j = meio + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (i > meio) v[k] = aux[j++];
+            else if (j > hi) v[k] = aux[i++];
+            else if (aux[j].compareTo(aux[i]) < 0) v[k] = aux[j++];
+            else v[k] = aux[i++];
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+import java.util.Arrays;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Referência do benchmark: Arrays.sort do próprio JDK.
+ *
+ * 🔸 long[] → Dual-Pivot QuickSort (Yaroslavskiy)
+ * 🔸 String[] → TimSort
+ */
+@Component
+public class OrdenacaoJdk implements AlgoritmoOrdenacao {
+
+    @Override
+    public String getNome() { return "jdk"; }
+
+    @Override
+    public String getDescricao() { return "Arrays.sort — Dual-Pivot QuickSort (long) / TimSort (texto)"; }
+
+    @Override
+    public void ordenar(long[] v) {
+        Arrays.sort(v);
+    }
+
+    @Override
+    public void ordenar(String[] v) {
+        Arrays.sort(v);
+    }
+}
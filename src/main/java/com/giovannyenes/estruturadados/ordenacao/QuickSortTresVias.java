@@ -0,0 +1,72 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * QuickSort com pivô pela mediana de três e partição em três vias (Dijkstra).
+ *
+ * 🔸 Mediana de três → entradas já ordenadas não degeneram para O(n²)
+ * 🔸 Três vias (&lt; pivô, = pivô, &gt; pivô) → muitos valores iguais custam O(n)
+ * 🔸 Recursão só na parte menor → pilha O(log n), sem StackOverflowError
+ */
+@Component
+public class QuickSortTresVias implements AlgoritmoOrdenacao {
+
+    @Override
+    public String getNome() { return "quicksort-3-vias"; }
+
+    @Override
+    public String getDescricao() { return "QuickSort mediana de três + partição em três vias — O(n log n) médio"; }
+
+    @Override
+    public void ordenar(long[] v) {
+        ordenar(v, 0, v.length - 1);
+    }
+
+    @Override
+    public void ordenar(String[] v) {
+        ordenar(v, 0, v.length - 1);
+    }
+
+    private void ordenar(long[] v, int lo, int hi) {
+        while (hi - lo > Auxiliares.LIMITE_INSERCAO) {
+            long pivo = v[Auxiliares.medianaDeTres(v, lo, hi)];
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (v[i] < pivo) Auxiliares.trocar(v, lt++, i++);
+                else if (v[i] > pivo) Auxiliares.trocar(v, i, gt--);
+                else i++;
+            }
+            // [lo, lt) < pivô, [lt, gt] = pivô, (gt, hi] > pivô
+            if (lt - lo < hi - gt) {
+                ordenar(v, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                ordenar(v, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+        Auxiliares.insercao(v, lo, hi);
+    }
+
+    private void ordenar(String[] v, int lo, int hi) {
+        while (hi - lo > Auxiliares.LIMITE_INSERCAO) {
+            String pivo = v[Auxiliares.medianaDeTres(v, lo, hi)];
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                int cmp = v[i].compareTo(pivo);
+                if (cmp < 0) Auxiliares.trocar(v, lt++, i++);
+                else if (cmp > 0) Auxiliares.trocar(v, i, gt--);
+                else i++;
+            }
+            if (lt - lo < hi - gt) {
+                ordenar(v, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                ordenar(v, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+        Auxiliares.insercao(v, lo, hi);
+    }
+}
@@ -0,0 +1,100 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Radix sort sem comparações.
+ *
+ * 🔸 long[]: LSD com dígitos de 8 bits (até 8 passadas estáveis). Os histogramas dos 8 bytes
+ *    saem de uma única leitura, e passadas em que todos os valores têm o mesmo byte são puladas
+ *    (anos e contagens pequenas usam só 2 ou 3 passadas)
+ * 🔸 String[]: MSD por caractere, com inserção nos grupos pequenos
+ * 🔸 Memória extra O(n) para o vetor auxiliar
+ */
+@Component
+public class RadixSort implements AlgoritmoOrdenacao {
+
+    private static final int BASE = 256;
+
+    @Override
+    public String getNome() { return "radix"; }
+
+    @Override
+    public String getDescricao() { return "Radix sort LSD (long) / MSD (texto) — O(n·k), sem comparações"; }
+
+    @Override
+    public void ordenar(long[] v) {
+        int n = v.length;
+        if (n < 2) return;
+
+        // 🧠 Inverter o bit de sinal faz negativos virem antes dos positivos na ordem sem sinal
+        int[][] contagem = new int[8][BASE + 1];
+        for (long x : v) {
+            long chave = x ^ Long.MIN_VALUE;
+            for (int b = 0; b < 8; b++) {
+                contagem[b][(int) ((chave >>> (8 * b)) & 0xff) + 1]++;
+            }
+        }
+
+        long[] origem = v, destino = new long[n];
+        for (int b = 0; b < 8; b++) {
+            int[] c = contagem[b];
+            if (digitoConstante(c, n)) continue;
+            for (int d = 0; d < BASE; d++) c[d + 1] += c[d];
+            int deslocamento = 8 * b;
+            for (long x : origem) {
+                destino[c[(int) (((x ^ Long.MIN_VALUE) >>> deslocamento) & 0xff)]++] = x;
+            }
+            long[] t = origem;
+            origem = destino;
+            destino = t;
+        }
+        if (origem != v) System.arraycopy(origem, 0, v, 0, n);
+    }
+
+    private boolean digitoConstante(int[] contagem, int n) {
+        for (int d = 1; d <= BASE; d++) {
+            if (contagem[d] == n) return true;
+            if (contagem[d] != 0) return false;
+        }
+        return false;
+    }
+
+    // ============================================================
+    // 🔹 String[] — MSD
+    // ============================================================
+
+    @Override
+    public void ordenar(String[] v) {
+        if (v.length < 2) return;
+        ordenar(v, new String[v.length], 0, v.length - 1, 0);
+    }
+
+    private void ordenar(String[] v, String[] aux, int lo, int hi, int d) {
+        if (hi - lo <= Auxiliares.LIMITE_INSERCAO) {
+            Auxiliares.insercao(v, lo, hi);
+            return;
+        }
+
+        // 🧠 Alfabeto de 16 bits; -1 (fim da String) fica no balde 0
+        int alfabeto = 0;
+        for (int i = lo; i <= hi; i++) alfabeto = Math.max(alfabeto, caractere(v[i], d) + 2);
+        if (alfabeto == 1) return; // todas as Strings acabaram → iguais a partir de d
+
+        int[] c = new int[alfabeto + 1];
+        for (int i = lo; i <= hi; i++) c[caractere(v[i], d) + 2]++;
+        for (int r = 0; r < alfabeto; r++) c[r + 1] += c[r];
+        for (int i = lo; i <= hi; i++) aux[c[caractere(v[i], d) + 1]++] = v[i];
+        System.arraycopy(aux, 0, v, lo, hi - lo + 1);
+
+        // c[r] agora marca o fim do balde r; o balde 0 (Strings encerradas) já está pronto
+        for (int r = 1; r < alfabeto; r++) {
+            int inicio = lo + c[r - 1], fim = lo + c[r] - 1;
+            if (fim > inicio) ordenar(v, aux, inicio, fim, d + 1);
+        }
+    }
+
+    private static int caractere(String s, int d) {
+        return d < s.length() ? s.charAt(d) : -1;
+    }
+}
@@ -1,57 +1,74 @@
 package com.giovannyenes.estruturadados.service;
 
 import java.util.*;
-import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import com.giovannyenes.estruturadados.model.DadosDesmatamento;
-import com.giovannyenes.estruturadados.repository.DadosDesmatamentoRepository;
+import com.giovannyenes.estruturadados.ordenacao.AlgoritmoOrdenacao;
 
 
 /**
  * Serviço responsável por realizar análises sobre os dados de desmatamento.
  *
  * 🧠 Este código aplica diferentes algoritmos clássicos:
- * - QuickSort (manual) → para ordenar listas (anos, biomas, municípios)
- * - Busca Linear → para contagens e agregações
+ * - Ordenação → estratégias em vetores primitivos (QuickSort 3 vias, IntroSort, Radix, MergeSort
+ *   paralelo), escolhidas por endpoint via OrdenacaoService
+ * - Busca Linear → para contagens e agregações (em paralelo, um shard UF/ano por vez)
  * - Regressão Linear → para prever tendências
  */
 @Service
 public class AnaliseService {
 
-    private final DadosDesmatamentoRepository repository;
-
-    public AnaliseService(DadosDesmatamentoRepository repository) {
-        this.repository = repository;
+    private final ShardService shardService;
+    private final ClusterService clusterService;
+    private final OrdenacaoService ordenacaoService;
+    private final MeterRegistry meterRegistry;
+    private final int benchmarkMaxRegistros;
+
+    public AnaliseService(ShardService shardService, ClusterService clusterService,
+                          OrdenacaoService ordenacaoService, MeterRegistry meterRegistry,
+                          @Value("${analise.ordenacao.benchmark-max-registros:200000}") int benchmarkMaxRegistros) {
+        this.shardService = shardService;
+        this.clusterService = clusterService;
+        this.ordenacaoService = ordenacaoService;
+        this.meterRegistry = meterRegistry;
+        this.benchmarkMaxRegistros = Math.max(1, benchmarkMaxRegistros);
     }
 
     // ============================================================
-    // 🔹 ORDENAÇÃO COM QUICKSORT
+    // 🔹 ORDENAÇÃO
     // ============================================================
 
     /**
      * Lista todos os anos distintos em ordem crescente.
      *
-     * 🔸 Algoritmo: QuickSort (manual)
-     * 🔸 Complexidade média: O(n log n)
+     * 🔸 Algoritmo: o escolhido em "algoritmo" (vazio = padrão)
+     * 🔸 Complexidade: O(n log n) (radix: O(n))
      * 🔸 Etapas:
      *    1. Coleta os anos únicos da base de dados.
-     *    2. Converte o Set em lista.
-     *    3. Ordena usando QuickSort manual.
+     *    2. Copia para um long[] (sem boxing).
+     *    3. Ordena com a estratégia escolhida.
      */
-    public List<Integer> listarAnosOrdenados() {
-        List<DadosDesmatamento> lista = repository.findAll();
-        Set<Integer> anosSet = new HashSet<>();
-
-        // 🔍 Busca Linear — percorre toda a lista para coletar os anos.
-        for (DadosDesmatamento d : lista) {
-            LocalDate data = d.getData();
-            if (data != null) anosSet.add(data.getYear());
-        }
+    public List<Integer> listarAnosOrdenados(String estado, String algoritmo) {
+        // 🔍 Busca Linear — percorre todos os shards para coletar os anos.
+        Set<Integer> anosSet = contarPor("listarAnosOrdenados", estado, null, Dimensao.ANO).keySet();
+        return ordenarAnos(anosSet, ordenacaoService.algoritmo(algoritmo));
+    }
 
-        // 🔢 Ordenação com QuickSort manual
-        List<Integer> anosOrdenados = new ArrayList<>(anosSet);
-        quickSortIntegers(anosOrdenados, 0, anosOrdenados.size() - 1);
-        return anosOrdenados;
+    /**
+     * Lista as siglas das UFs com arquivos catalogados, em ordem alfabética.
+     *
+     * 🔸 Usa apenas o catálogo de shards (não lê os arquivos), local e das outras instâncias
+     */
+    public List<String> listarEstados(String algoritmo) {
+        Set<String> estadosSet = new HashSet<>(listarEstadosLocais());
+        estadosSet.addAll(clusterService.estados());
+        return ordenarTextos(estadosSet, ordenacaoService.algoritmo(algoritmo));
     }
 
     // ============================================================
@@ -64,45 +81,25 @@ public class AnaliseService {
      * 🔸 Algoritmo: Busca Linear
      * 🔸 Complexidade: O(n)
      *
-     * Percorre toda a lista e acumula a contagem por ano.
+     * Percorre todos os shards e acumula a contagem por ano.
      */
-    public Map<Integer, Long> totalFocosPorAno() {
-        List<DadosDesmatamento> lista = repository.findAll();
-        Map<Integer, Long> mapa = new HashMap<>();
-
-        for (DadosDesmatamento d : lista) {
-            LocalDate data = d.getData();
-            if (data != null) {
-                int ano = data.getYear();
-                mapa.put(ano, mapa.getOrDefault(ano, 0L) + 1);
-            }
-        }
-        return mapa;
+    public Map<Integer, Long> totalFocosPorAno(String estado) {
+        return contarPor("totalFocosPorAno", estado, null, Dimensao.ANO);
     }
 
     /**
      * Lista de biomas distintos em ordem alfabética.
      *
-     * 🔸 Algoritmo: QuickSort (manual)
+     * 🔸 Algoritmo: o escolhido em "algoritmo" (vazio = padrão)
      * 🔸 Passos:
      *    1. Coleta biomas únicos.
-     *    2. Converte em lista.
-     *    3. Ordena alfabeticamente com QuickSort.
+     *    2. Copia para um String[].
+     *    3. Ordena alfabeticamente com a estratégia escolhida.
      */
-    public List<String> listarBiomasOrdenados() {
-        List<DadosDesmatamento> lista = repository.findAll();
-        Set<String> biomasSet = new HashSet<>();
-
+    public List<String> listarBiomasOrdenados(String estado, String algoritmo) {
         // Busca Linear — percorre todos os dados coletando biomas não nulos
-        for (DadosDesmatamento d : lista) {
-            String bioma = d.getBioma();
-            if (bioma != null) biomasSet.add(bioma);
-        }
-
-        // QuickSort aplicado à lista de Strings
-        List<String> biomasOrdenados = new ArrayList<>(biomasSet);
-        quickSortStrings(biomasOrdenados, 0, biomasOrdenados.size() - 1);
-        return biomasOrdenados;
+        Set<String> biomasSet = contarPor("listarBiomasOrdenados", estado, null, Dimensao.BIOMA).keySet();
+        return ordenarTextos(biomasSet, ordenacaoService.algoritmo(algoritmo));
     }
 
     /**
@@ -111,15 +108,8 @@ public class AnaliseService {
      * 🔸 Algoritmo: Busca Linear
      * 🔸 Cada registro é percorrido uma vez e somado no mapa.
      */
-    public Map<String, Long> totalFocosPorBioma() {
-        List<DadosDesmatamento> lista = repository.findAll();
-        Map<String, Long> mapa = new HashMap<>();
-
-        for (DadosDesmatamento d : lista) {
-            String bioma = d.getBioma();
-            if (bioma != null) mapa.put(bioma, mapa.getOrDefault(bioma, 0L) + 1);
-        }
-        return mapa;
+    public Map<String, Long> totalFocosPorBioma(String estado) {
+        return contarPor("totalFocosPorBioma", estado, null, Dimensao.BIOMA);
     }
 
     // ============================================================
@@ -129,13 +119,12 @@ public class AnaliseService {
     /**
      * Calcula o crescimento percentual de queimadas entre anos consecutivos.
      *
-     * 🔸 QuickSort — usado para ordenar os anos.
+     * 🔸 Ordenação (algoritmo padrão) — usada para ordenar os anos.
      * 🔸 Busca Linear — compara cada ano com o anterior.
      */
-    public Map<Integer, Double> crescimentoPercentualPorAno() {
-        Map<Integer, Long> totalPorAno = totalFocosPorAno();
-        List<Integer> anos = new ArrayList<>(totalPorAno.keySet());
-        quickSortIntegers(anos, 0, anos.size() - 1); // ordena anos
+    public Map<Integer, Double> crescimentoPercentualPorAno(String estado) {
+        Map<Integer, Long> totalPorAno = totalFocosPorAno(estado);
+        List<Integer> anos = ordenarAnos(totalPorAno.keySet(), ordenacaoService.algoritmo(null));
 
         Map<Integer, Double> crescimento = new LinkedHashMap<>();
 
@@ -157,17 +146,8 @@ public class AnaliseService {
      * 🔸 Algoritmo: Busca Linear
      * 🔸 Estrutura: TreeMap (mantém ordem crescente automaticamente)
      */
-    public Map<Integer, Long> contagemPorMes() {
-        List<DadosDesmatamento> lista = repository.findAll();
-        Map<Integer, Long> mapa = new TreeMap<>();
-        for (DadosDesmatamento d : lista) {
-            LocalDate data = d.getData();
-            if (data != null) {
-                int mes = data.getMonthValue();
-                mapa.put(mes, mapa.getOrDefault(mes, 0L) + 1);
-            }
-        }
-        return mapa;
+    public Map<Integer, Long> contagemPorMes(String estado) {
+        return new TreeMap<>(contarPor("contagemPorMes", estado, null, Dimensao.MES));
     }
 
     /**
@@ -175,17 +155,8 @@ public class AnaliseService {
      *
      * 🔸 Algoritmo: Busca Linear
      */
-    public Map<String, Long> contagemPorEstacao() {
-        List<DadosDesmatamento> lista = repository.findAll();
-        Map<String, Long> mapa = new HashMap<>();
-        for (DadosDesmatamento d : lista) {
-            LocalDate data = d.getData();
-            if (data != null) {
-                String estacao = getEstacao(data.getMonthValue());
-                mapa.put(estacao, mapa.getOrDefault(estacao, 0L) + 1);
-            }
-        }
-        return mapa;
+    public Map<String, Long> contagemPorEstacao(String estado) {
+        return contarPor("contagemPorEstacao", estado, null, Dimensao.ESTACAO);
     }
 
     // ============================================================
@@ -195,34 +166,79 @@ public class AnaliseService {
     /**
      * Retorna os top N municípios com mais queimadas.
      *
-     * 🔸 Algoritmo: QuickSort (manual)
-     * 🔸 Ordenação: Decrescente pelo valor (quantidade de queimadas)
+     * 🔸 Algoritmo: o escolhido em "algoritmo" (vazio = padrão)
+     * 🔸 Ordenação: Decrescente pelo valor (quantidade de queimadas); empates em ordem alfabética
      */
-    public Map<String, Long> rankingMunicipios(int top) {
-        List<DadosDesmatamento> lista = repository.findAll();
-        Map<String, Long> contagem = new HashMap<>();
-
+    public Map<String, Long> rankingMunicipios(int top, String estado, String algoritmo) {
         // Busca Linear — soma as ocorrências por município
-        for (DadosDesmatamento d : lista) {
-            String municipio = d.getMunicipio();
-            if (municipio != null && !municipio.isBlank()) {
-                contagem.put(municipio, contagem.getOrDefault(municipio, 0L) + 1);
-            }
-        }
+        Map<String, Long> contagem = contarPor("rankingMunicipios", estado, null, Dimensao.MUNICIPIO);
 
-        // QuickSort aplicado em pares (chave, valor)
-        List<Map.Entry<String, Long>> ordenada = new ArrayList<>(contagem.entrySet());
-        quickSortEntries(ordenada, 0, ordenada.size() - 1);
+        AlgoritmoOrdenacao ordenacao = ordenacaoService.algoritmo(algoritmo);
+        String[] nomes = contagem.keySet().toArray(new String[0]);
+        long[] chaves = chavesRanking(contagem, nomes, ordenacao);
+        ordenacao.ordenar(chaves);
 
-        // Retorna apenas os top N
+        // Retorna apenas os top N (o vetor está crescente → lê do fim)
         Map<String, Long> resultado = new LinkedHashMap<>();
-        for (int i = 0; i < Math.min(top, ordenada.size()); i++) {
-            Map.Entry<String, Long> e = ordenada.get(i);
-            resultado.put(e.getKey(), e.getValue());
+        for (int i = chaves.length - 1; i >= Math.max(0, chaves.length - top); i--) {
+            String nome = nomes[indiceRanking(chaves[i])];
+            resultado.put(nome, contagem.get(nome));
         }
         return resultado;
     }
 
+    // ============================================================
+    // 🔹 CONTAGENS DISTINTAS E DISTRIBUIÇÃO DIÁRIA (MODO EXATO)
+    // ============================================================
+
+    /**
+     * Quantidade exata de municípios distintos (no ano informado ou em toda a base).
+     *
+     * 🔸 Algoritmo: Busca Linear + tamanho do mapa de contagens
+     * 🔸 Versão aproximada em SketchService (HyperLogLog)
+     */
+    public Map<String, Object> municipiosDistintos(String estado, Integer ano) {
+        return respostaExata(contarPor("municipiosDistintos", estado, ano, Dimensao.MUNICIPIO).size());
+    }
+
+    /**
+     * Quantidade exata de foco_ids distintos (no ano informado ou em toda a base).
+     *
+     * 🔸 Algoritmo: Busca Linear + tamanho do mapa de contagens
+     */
+    public Map<String, Object> focosDistintos(String estado, Integer ano) {
+        // Cada foco pertence a um único shard: as instâncias enviam só a quantidade, não os IDs
+        Supplier<Long> remotos = clusterService.distintos(Dimensao.FOCO, estado, ano);
+        long locais = contarLocal("focosDistintos", estado, ano, Dimensao.FOCO).size();
+        return respostaExata(locais + remotos.get());
+    }
+
+    /**
+     * Quantis exatos da quantidade de focos por dia (apenas dias com pelo menos um foco).
+     *
+     * 🔸 Algoritmo: Busca Linear (contagem por dia) + ordenação do vetor de contagens
+     * 🔸 Com vários estados, cada valor é a contagem de um dia em um estado (igual ao DDSketch)
+     */
+    public Map<String, Object> distribuicaoDiaria(String estado, Integer ano, String algoritmo) {
+        Supplier<List<Long>> remotos = clusterService.focosPorDia(estado, ano);
+        List<Long> porDia = new ArrayList<>(focosPorDiaLocal(estado, ano));
+        porDia.addAll(remotos.get());
+        if (porDia.isEmpty()) return Map.of();
+
+        long[] valores = new long[porDia.size()];
+        int i = 0;
+        for (long v : porDia) valores[i++] = v;
+        ordenacaoService.algoritmo(algoritmo).ordenar(valores);
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("modo", "exato");
+        resposta.put("dias", (long) valores.length);
+        resposta.put("p50", quantil(valores, 0.50));
+        resposta.put("p90", quantil(valores, 0.90));
+        resposta.put("p99", quantil(valores, 0.99));
+        return resposta;
+    }
+
     // ============================================================
     // 🔹 OUTRAS ANÁLISES
     // ============================================================
@@ -233,8 +249,8 @@ public class AnaliseService {
      * 🔸 Algoritmo: Busca Linear
      * Percorre o mapa e identifica o maior valor.
      */
-    public Map<String, Long> estacaoComMaisQueimadas() {
-        Map<String, Long> mapa = contagemPorEstacao();
+    public Map<String, Long> estacaoComMaisQueimadas(String estado) {
+        Map<String, Long> mapa = contagemPorEstacao(estado);
         String maiorEstacao = null;
         long maiorValor = 0;
 
@@ -252,16 +268,15 @@ public class AnaliseService {
     /**
      * Calcula a tendência geral (regressão linear).
      *
-     * 🔸 QuickSort — organiza os anos antes da regressão.
+     * 🔸 Ordenação (algoritmo padrão) — organiza os anos antes da regressão.
      * 🔸 Algoritmo estatístico: Regressão Linear
      *    y = a + b*x, onde:
      *      - b indica a direção (positiva = crescente, negativa = decrescente)
      *      - r² mede a precisão do modelo
      */
-    public Map<String, Object> tendenciaGeral() {
-        Map<Integer, Long> totalPorAno = totalFocosPorAno();
-        List<Integer> anos = new ArrayList<>(totalPorAno.keySet());
-        quickSortIntegers(anos, 0, anos.size() - 1);
+    public Map<String, Object> tendenciaGeral(String estado) {
+        Map<Integer, Long> totalPorAno = totalFocosPorAno(estado);
+        List<Integer> anos = ordenarAnos(totalPorAno.keySet(), ordenacaoService.algoritmo(null));
 
         if (anos.size() < 2) {
             return Map.of("erro", "Dados insuficientes para calcular tendência");
@@ -285,13 +300,12 @@ public class AnaliseService {
     /**
      * Calcula previsões para vários anos à frente.
      *
-     * 🔸 QuickSort — organiza anos antes da regressão.
+     * 🔸 Ordenação (algoritmo padrão) — organiza anos antes da regressão.
      * 🔸 Regressão Linear — usada para prever valores futuros.
      */
-    public Map<Integer, Map<String, Object>> tendenciaIntervalo(int anosParaFrente) {
-        Map<Integer, Long> totalPorAno = totalFocosPorAno();
-        List<Integer> anos = new ArrayList<>(totalPorAno.keySet());
-        quickSortIntegers(anos, 0, anos.size() - 1);
+    public Map<Integer, Map<String, Object>> tendenciaIntervalo(int anosParaFrente, String estado) {
+        Map<Integer, Long> totalPorAno = totalFocosPorAno(estado);
+        List<Integer> anos = ordenarAnos(totalPorAno.keySet(), ordenacaoService.algoritmo(null));
 
         if (anos.size() < 2) return Map.of();
 
@@ -323,15 +337,89 @@ public class AnaliseService {
     // 🔹 MÉTODOS AUXILIARES
     // ============================================================
 
-    /** Retorna a estação do ano com base no mês (Hemisfério Sul). */
-    private String getEstacao(int mes) {
-        return switch (mes) {
-            case 12, 1, 2 -> "Verão";
-            case 3, 4, 5 -> "Outono";
-            case 6, 7, 8 -> "Inverno";
-            case 9, 10, 11 -> "Primavera";
-            default -> "Desconhecida";
-        };
+    /**
+     * Conta os registros por chave: shards locais + parciais das outras instâncias (modo cluster).
+     *
+     * 🔸 Algoritmo: Busca Linear em cada shard + soma dos mapas parciais
+     * 🔸 Registros sem chave na dimensão são ignorados
+     * 🔸 Os pedidos aos workers saem antes da varredura local: as duas esperas se sobrepõem
+     */
+    private <K> Map<K, Long> contarPor(String consulta, String estado, Integer ano, Dimensao<K> dimensao) {
+        Supplier<Map<K, Long>> remotos = clusterService.contagens(dimensao, estado, ano);
+        Map<K, Long> mapa = contarLocal(consulta, estado, ano, dimensao);
+        remotos.get().forEach((k, v) -> mapa.merge(k, v, Long::sum));
+        return mapa;
+    }
+
+    /**
+     * Conta os registros por chave varrendo em paralelo apenas os shards desta instância.
+     *
+     * 🔸 Métrica: analise.linhas.varridas (tag consulta) — exposta em /actuator/prometheus
+     */
+    public <K> Map<K, Long> contarLocal(String consulta, String estado, Integer ano, Dimensao<K> dimensao) {
+        LongAdder linhas = new LongAdder();
+        Map<K, Long> mapa = shardService.varrer(estado, ano, registros -> {
+            linhas.add(registros.size());
+            Map<K, Long> parcial = new HashMap<>();
+            for (DadosDesmatamento d : registros) {
+                if (!pertenceAoAno(d, ano)) continue;
+                K k = dimensao.chave(d);
+                if (k != null) parcial.put(k, parcial.getOrDefault(k, 0L) + 1);
+            }
+            return parcial;
+        }, (a, b) -> {
+            b.forEach((k, v) -> a.merge(k, v, Long::sum));
+            return a;
+        }, new HashMap<>());
+        registrarLinhas(consulta, linhas.sum());
+        return mapa;
+    }
+
+    /** Quantidade de focos de cada dia em cada shard local (dias sem focos não aparecem). */
+    public List<Long> focosPorDiaLocal(String estado, Integer ano) {
+        LongAdder linhas = new LongAdder();
+        List<Long> porDia = shardService.varrer(estado, ano, registros -> {
+            linhas.add(registros.size());
+            Map<Integer, Long> parcial = new HashMap<>();
+            for (DadosDesmatamento d : registros) {
+                if (pertenceAoAno(d, ano)) parcial.merge(d.getDia(), 1L, Long::sum);
+            }
+            return new ArrayList<>(parcial.values());
+        }, (a, b) -> { a.addAll(b); return a; }, new ArrayList<>());
+        registrarLinhas("distribuicaoDiaria", linhas.sum());
+        return porDia;
+    }
+
+    /** Siglas das UFs com shards nesta instância. */
+    public List<String> listarEstadosLocais() {
+        Set<String> estados = new HashSet<>();
+        for (ShardService.Shard shard : shardService.selecionar(null, null)) estados.add(shard.getUf());
+        return new ArrayList<>(estados);
+    }
+
+    private void registrarLinhas(String consulta, long linhas) {
+        DistributionSummary.builder("analise.linhas.varridas")
+                .description("Linhas varridas por consulta de análise")
+                .baseUnit("linhas")
+                .tag("consulta", consulta)
+                .register(meterRegistry)
+                .record(linhas);
+    }
+
+    private boolean pertenceAoAno(DadosDesmatamento d, Integer ano) {
+        return ano == null || d.getData().getYear() == ano;
+    }
+
+    private Map<String, Object> respostaExata(long valor) {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("modo", "exato");
+        resposta.put("estimativa", valor);
+        return resposta;
+    }
+
+    /** Quantil q de um vetor já ordenado (mesmo critério de rank do DDSketch). */
+    private long quantil(long[] ordenados, double q) {
+        return ordenados[(int) (q * (ordenados.length - 1))];
     }
 
     /**
@@ -341,8 +429,7 @@ public class AnaliseService {
      * 🔸 Retorna: [a (intercepto), b (inclinação), r² (coeficiente de determinação)]
      */
     private double[] calcularRegressaoLinear(Map<Integer, Long> dados) {
-        List<Integer> anos = new ArrayList<>(dados.keySet());
-        quickSortIntegers(anos, 0, anos.size() - 1);
+        List<Integer> anos = ordenarAnos(dados.keySet(), ordenacaoService.algoritmo(null));
         int n = anos.size();
         int anoBase = anos.get(0);
 
@@ -378,72 +465,130 @@ public class AnaliseService {
     }
 
     // ============================================================
-    // 🔹 IMPLEMENTAÇÕES DO QUICKSORT
+    // 🔹 ORDENAÇÃO EM VETORES PRIMITIVOS
     // ============================================================
 
-    /** QuickSort para inteiros (anos). */
-    private void quickSortIntegers(List<Integer> list, int low, int high) {
-        if (low < high) {
-            int pi = partitionIntegers(list, low, high);
-            quickSortIntegers(list, low, pi - 1);
-            quickSortIntegers(list, pi + 1, high);
-        }
+    private List<Integer> ordenarAnos(Collection<Integer> anos, AlgoritmoOrdenacao algoritmo) {
+        long[] valores = new long[anos.size()];
+        int i = 0;
+        for (int ano : anos) valores[i++] = ano;
+        algoritmo.ordenar(valores);
+
+        List<Integer> ordenados = new ArrayList<>(valores.length);
+        for (long v : valores) ordenados.add((int) v);
+        return ordenados;
     }
 
-    private int partitionIntegers(List<Integer> list, int low, int high) {
-        int pivot = list.get(high); // pivô = último elemento
-        int i = low - 1;
-        for (int j = low; j < high; j++) {
-            if (list.get(j) < pivot) {
-                i++;
-                Collections.swap(list, i, j);
-            }
-        }
-        Collections.swap(list, i + 1, high);
-        return i + 1;
+    private List<String> ordenarTextos(Collection<String> textos, AlgoritmoOrdenacao algoritmo) {
+        String[] valores = textos.toArray(new String[0]);
+        algoritmo.ordenar(valores);
+        return Arrays.asList(valores);
     }
 
-    /** QuickSort para Strings (ordem alfabética). */
-    private void quickSortStrings(List<String> list, int low, int high) {
-        if (low < high) {
-            int pi = partitionStrings(list, low, high);
-            quickSortStrings(list, low, pi - 1);
-            quickSortStrings(list, pi + 1, high);
+    /**
+     * Empacota (contagem, posição alfabética do nome) em um long por município.
+     *
+     * 🧠 Contagem nos 32 bits altos e o complemento da posição nos baixos: em ordem crescente
+     *    o fim do vetor tem as maiores contagens e, no empate, o nome que vem primeiro
+     * 🔸 O vetor nomes é ordenado aqui (mesma estratégia) para definir as posições
+     */
+    private long[] chavesRanking(Map<String, Long> contagem, String[] nomes, AlgoritmoOrdenacao algoritmo) {
+        algoritmo.ordenar(nomes);
+        long[] chaves = new long[nomes.length];
+        for (int i = 0; i < nomes.length; i++) {
+            chaves[i] = (contagem.get(nomes[i]) << 32) | (0xFFFFFFFFL - i);
         }
+        return chaves;
     }
 
-    private int partitionStrings(List<String> list, int low, int high) {
-        String pivot = list.get(high);
-        int i = low - 1;
-        for (int j = low; j < high; j++) {
-            if (list.get(j).compareTo(pivot) < 0) {
-                i++;
-                Collections.swap(list, i, j);
-            }
-        }
-        Collections.swap(list, i + 1, high);
-        return i + 1;
+    private int indiceRanking(long chave) {
+        return (int) (0xFFFFFFFFL - (chave & 0xFFFFFFFFL));
     }
 
-    /** QuickSort para Map.Entry — ordena pelo valor de forma decrescente. */
-    private void quickSortEntries(List<Map.Entry<String, Long>> list, int low, int high) {
-        if (low < high) {
-            int pi = partitionEntries(list, low, high);
-            quickSortEntries(list, low, pi - 1);
-            quickSortEntries(list, pi + 1, high);
+    // ============================================================
+    // 🔹 BENCHMARK DE ORDENAÇÃO
+    // ============================================================
+
+    /**
+     * Compara os algoritmos de ordenação sobre os dados carregados.
+     *
+     * 🔸 Conjuntos: datas dos focos (muitos repetidos), as mesmas datas já ordenadas
+     *    (pior caso do QuickSort com pivô fixo), chaves do ranking de municípios,
+     *    municípios por registro (texto com muitos repetidos) e foco_ids (texto quase único)
+     * 🔸 Considera apenas os shards desta instância
+     * 🔸 Acima de analise.ordenacao.benchmark-max-registros usa uma amostra uniforme
+     *    (reservatório por shard, mesclado proporcionalmente): a memória não cresce com a base
+     */
+    public Map<String, Object> benchmarkOrdenacao(String estado, int repeticoes) {
+        Amostra amostra = shardService.varrer(estado, null, parcial -> Amostra.de(parcial, benchmarkMaxRegistros),
+                (a, b) -> a.mesclar(b, benchmarkMaxRegistros), new Amostra(new ArrayList<>(), 0));
+        registrarLinhas("benchmarkOrdenacao", amostra.vistos());
+        List<DadosDesmatamento> registros = amostra.itens();
+
+        long[] datas = registros.stream().mapToLong(DadosDesmatamento::getDia).toArray();
+        long[] datasOrdenadas = datas.clone();
+        ordenacaoService.algoritmo(null).ordenar(datasOrdenadas);
+
+        Map<String, Long> contagem = new HashMap<>();
+        for (DadosDesmatamento d : registros) {
+            if (d.getMunicipio() != null) contagem.merge(d.getMunicipio(), 1L, Long::sum);
         }
+        String[] nomes = contagem.keySet().toArray(new String[0]);
+        long[] ranking = chavesRanking(contagem, nomes, ordenacaoService.algoritmo(null));
+
+        Map<String, long[]> numericos = new LinkedHashMap<>();
+        numericos.put("datas", datas);
+        numericos.put("datas-ordenadas", datasOrdenadas);
+        numericos.put("ranking-municipios", ranking);
+
+        Map<String, String[]> textos = new LinkedHashMap<>();
+        textos.put("municipios", registros.stream().map(DadosDesmatamento::getMunicipio)
+                .filter(Objects::nonNull).toArray(String[]::new));
+        textos.put("focos", registros.stream().map(d -> d.getFocoId().toString()).toArray(String[]::new));
+
+        Map<String, Object> resposta = ordenacaoService.benchmark(numericos, textos, repeticoes);
+        resposta.put("registros", amostra.vistos());
+        resposta.put("amostra", registros.size() < amostra.vistos());
+        return resposta;
     }
 
-    private int partitionEntries(List<Map.Entry<String, Long>> list, int low, int high) {
-        long pivot = list.get(high).getValue();
-        int i = low - 1;
-        for (int j = low; j < high; j++) {
-            if (list.get(j).getValue() > pivot) {
-                i++;
-                Collections.swap(list, i, j);
+    /** Amostra aleatória uniforme (sem reposição) de {@code vistos} registros. */
+    private record Amostra(List<DadosDesmatamento> itens, long vistos) {
+
+        /** Algoritmo R (reservatório) sobre a lista de um shard. */
+        static Amostra de(List<DadosDesmatamento> registros, int limite) {
+            if (registros.size() <= limite) return new Amostra(new ArrayList<>(registros), registros.size());
+            Random aleatorio = ThreadLocalRandom.current();
+            List<DadosDesmatamento> itens = new ArrayList<>(registros.subList(0, limite));
+            for (int i = limite; i < registros.size(); i++) {
+                int j = aleatorio.nextInt(i + 1);
+                if (j < limite) itens.set(j, registros.get(i));
+            }
+            return new Amostra(itens, registros.size());
+        }
+
+        /** Cada vaga sai de um lado com probabilidade proporcional aos registros que ele ainda representa. */
+        Amostra mesclar(Amostra outra, int limite) {
+            if (itens.size() + outra.itens.size() <= limite) {
+                List<DadosDesmatamento> todos = new ArrayList<>(itens);
+                todos.addAll(outra.itens);
+                return new Amostra(todos, vistos + outra.vistos);
+            }
+            Random aleatorio = ThreadLocalRandom.current();
+            List<DadosDesmatamento> a = new ArrayList<>(itens);
+            List<DadosDesmatamento> b = new ArrayList<>(outra.itens);
+            Collections.shuffle(a, aleatorio);
+            Collections.shuffle(b, aleatorio);
+            long restantesA = vistos, restantesB = outra.vistos;
+            int ia = 0, ib = 0;
+            List<DadosDesmatamento> mesclados = new ArrayList<>(limite);
+            while (mesclados.size() < limite) {
+                boolean deA = ib == b.size()
+                        || (ia < a.size() && aleatorio.nextLong(restantesA + restantesB) < restantesA);
+                if (deA) { mesclados.add(a.get(ia++)); restantesA--; }
+                else { mesclados.add(b.get(ib++)); restantesB--; }
             }
+            return new Amostra(mesclados, vistos + outra.vistos);
         }
-        Collections.swap(list, i + 1, high);
-        return i + 1;
     }
 }
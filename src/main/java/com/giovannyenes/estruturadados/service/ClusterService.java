@@ -0,0 +1,250 @@
+package com.giovannyenes.estruturadados.service;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriBuilder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Modo coordenador (scatter-gather) entre várias instâncias.
+ *
+ * 🧠 Cada worker é uma instância comum que possui outros shards (UF/ano) e responde
+ * agregados parciais em /api/interno. O coordenador:
+ * 1. Dispara o mesmo pedido para todos os workers em paralelo (scatter)
+ * 2. Espera cada um até o timeout configurado
+ * 3. Mescla os parciais com o resultado local (gather)
+ *
+ * Sem workers configurados (padrão) tudo retorna vazio e a instância responde sozinha.
+ * Os shards de workers diferentes não podem se sobrepor, senão as contagens somam duas vezes.
+ *
+ * 🔸 contagens/focosPorDia/distintos/sketches disparam os pedidos na hora e devolvem um Supplier:
+ *    o chamador varre os shards locais enquanto os workers respondem e só então chama get()
+ * 🔸 Resposta montada sem algum worker (tolerar-falhas) → cabeçalho X-Resposta-Parcial: true
+ */
+@Service
+public class ClusterService {
+
+    public static final String CABECALHO_PARCIAL = "X-Resposta-Parcial";
+
+    private static final ParameterizedTypeReference<Map<String, Long>> MAPA_CONTAGENS = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<Long>> LISTA_LONGS = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<String>> LISTA_STRINGS = new ParameterizedTypeReference<>() {};
+
+    private final List<String> workers;
+    private final Duration timeout;
+    private final boolean tolerarFalhas;
+    private final RestClient restClient;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final long versoesTtl;
+
+    // Versões dos workers da última consulta (null = algum worker não respondeu)
+    private List<String> versoesEmCache;
+    private long versoesValidasAte;
+
+    /** Respostas dos workers que responderam; parcial = algum foi ignorado (tolerar-falhas). */
+    private record Coleta<R>(List<R> respostas, boolean parcial) {}
+
+    public ClusterService(MeterRegistry meterRegistry,
+                          @Value("${analise.cluster.workers:}") List<String> workers,
+                          @Value("${analise.cluster.timeout-ms:10000}") long timeoutMs,
+                          @Value("${analise.cluster.tolerar-falhas:false}") boolean tolerarFalhas,
+                          @Value("${analise.cluster.versoes-ttl-ms:1000}") long versoesTtlMs) {
+        this.meterRegistry = meterRegistry;
+        this.versoesTtl = TimeUnit.MILLISECONDS.toNanos(versoesTtlMs);
+        this.workers = workers.stream().map(String::trim).filter(w -> !w.isEmpty()).toList();
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.tolerarFalhas = tolerarFalhas;
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        JdkClientHttpRequestFactory fabrica = new JdkClientHttpRequestFactory(httpClient);
+        fabrica.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(fabrica).build();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "cluster-scatter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public boolean isAtivo() {
+        return !workers.isEmpty();
+    }
+
+    /** Soma das contagens por chave de todos os workers. */
+    public <K> Supplier<Map<K, Long>> contagens(Dimensao<K> dimensao, String estado, Integer ano) {
+        Supplier<Coleta<Map<String, Long>>> pendente = disparar("contagem", b -> filtros(b, estado, ano)
+                .queryParam("dimensao", dimensao.getNome()), MAPA_CONTAGENS);
+        return () -> {
+            Map<K, Long> total = new HashMap<>();
+            for (Map<String, Long> parcial : respostas(pendente)) {
+                parcial.forEach((k, v) -> total.merge(dimensao.deTexto(k), v, Long::sum));
+            }
+            return total;
+        };
+    }
+
+    /** Contagens de focos por dia (uma por dia em cada shard) de todos os workers. */
+    public Supplier<List<Long>> focosPorDia(String estado, Integer ano) {
+        Supplier<Coleta<List<Long>>> pendente = disparar("focos-por-dia", b -> filtros(b, estado, ano), LISTA_LONGS);
+        return () -> {
+            List<Long> todos = new ArrayList<>();
+            for (List<Long> parcial : respostas(pendente)) todos.addAll(parcial);
+            return todos;
+        };
+    }
+
+    /**
+     * Soma das quantidades de chaves distintas de todos os workers.
+     *
+     * 🔸 Só é exata para chaves que pertencem a um único shard (ex.: foco_id), pois
+     *    os workers não têm shards em comum
+     */
+    public Supplier<Long> distintos(Dimensao<?> dimensao, String estado, Integer ano) {
+        Supplier<Coleta<Long>> pendente = disparar("distintos", b -> filtros(b, estado, ano)
+                .queryParam("dimensao", dimensao.getNome()), new ParameterizedTypeReference<Long>() {});
+        return () -> {
+            long total = 0;
+            for (Long parcial : respostas(pendente)) total += parcial;
+            return total;
+        };
+    }
+
+    /** Sketches (HLL, Space-Saving, DDSketch) dos shards de cada worker, para o modo aproximado. */
+    public Supplier<List<SketchService.Parcial>> sketches(String estado, Integer ano) {
+        Supplier<Coleta<SketchService.Parcial>> pendente = disparar("sketch", b -> filtros(b, estado, ano),
+                new ParameterizedTypeReference<SketchService.Parcial>() {});
+        return () -> respostas(pendente);
+    }
+
+    /** Siglas das UFs de todos os workers. */
+    public Set<String> estados() {
+        Set<String> estados = new HashSet<>();
+        for (List<String> parcial : respostas(disparar("estados", b -> b, LISTA_STRINGS))) estados.addAll(parcial);
+        return estados;
+    }
+
+    /**
+     * Versão dos dados de cada worker (usada na chave do cache de respostas).
+     *
+     * 🔸 Guardada por analise.cluster.versoes-ttl-ms: uma consulta aos workers por intervalo,
+     *    não uma por requisição (as concorrentes esperam a mesma consulta)
+     * 🔸 null se algum worker não respondeu: sem a versão completa nada deve ir para o cache
+     */
+    public synchronized List<String> versoes() {
+        long agora = System.nanoTime();
+        if (agora - versoesValidasAte < 0) return versoesEmCache;
+        try {
+            Coleta<String> coleta = disparar("versao", b -> b, new ParameterizedTypeReference<String>() {}).get();
+            versoesEmCache = coleta.parcial() ? null : coleta.respostas();
+        } catch (ResponseStatusException e) {
+            versoesEmCache = null;
+        }
+        versoesValidasAte = System.nanoTime() + versoesTtl;
+        return versoesEmCache;
+    }
+
+    // ============================================================
+    // 🔹 SCATTER-GATHER
+    // ============================================================
+
+    /**
+     * Chama /api/interno/{caminho} em todos os workers em paralelo; get() espera as respostas.
+     *
+     * 🔸 Cada worker tem até {@code timeout} para responder, contado a partir do disparo
+     * 🔸 Falha ou atraso → 503, a menos que analise.cluster.tolerar-falhas=true
+     *    (nesse caso o worker é ignorado e a resposta fica parcial)
+     */
+    private <R> Supplier<Coleta<R>> disparar(String caminho, Function<UriBuilder, UriBuilder> parametros,
+                                             ParameterizedTypeReference<R> tipo) {
+        if (workers.isEmpty()) return () -> new Coleta<>(List.of(), false);
+
+        Map<String, Future<R>> pedidos = new LinkedHashMap<>();
+        long inicio = System.nanoTime();
+        for (String worker : workers) {
+            pedidos.put(worker, executor.submit(() -> restClient.get()
+                    .uri(worker + "/api/interno/" + caminho, b -> parametros.apply(b).build())
+                    .retrieve()
+                    .body(tipo)));
+        }
+        return () -> coletar(pedidos, inicio);
+    }
+
+    private <R> Coleta<R> coletar(Map<String, Future<R>> pedidos, long inicio) {
+        long prazo = inicio + timeout.toNanos();
+        List<R> respostas = new ArrayList<>();
+        boolean parcial = false;
+        for (Map.Entry<String, Future<R>> pedido : pedidos.entrySet()) {
+            String worker = pedido.getKey();
+            try {
+                R resposta = pedido.getValue().get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+                registrar(worker, "ok", inicio);
+                if (resposta != null) respostas.add(resposta);
+            } catch (Exception e) {
+                pedido.getValue().cancel(true);
+                String motivo = e instanceof TimeoutException ? "timeout" : "erro";
+                registrar(worker, motivo, inicio);
+                String mensagem = "Worker " + worker + " falhou (" + motivo + "): " + causa(e);
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                if (!tolerarFalhas) {
+                    pedidos.values().forEach(f -> f.cancel(true));
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, mensagem, e);
+                }
+                System.err.println("⚠️ " + mensagem + " — resposta parcial");
+                parcial = true;
+            }
+        }
+        return new Coleta<>(respostas, parcial);
+    }
+
+    /** Espera a coleta; se faltou algum worker, marca a resposta HTTP como parcial. */
+    private <R> List<R> respostas(Supplier<Coleta<R>> pendente) {
+        Coleta<R> coleta = pendente.get();
+        if (coleta.parcial()) marcarParcial();
+        return coleta.respostas();
+    }
+
+    /** Sinaliza na resposta HTTP em andamento (se houver) que faltou algum worker. */
+    private void marcarParcial() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos
+                && atributos.getResponse() != null) {
+            atributos.getResponse().setHeader(CABECALHO_PARCIAL, "true");
+        }
+    }
+
+    private UriBuilder filtros(UriBuilder b, String estado, Integer ano) {
+        if (estado != null && !estado.isBlank()) b = b.queryParam("estado", estado);
+        if (ano != null) b = b.queryParam("ano", ano);
+        return b;
+    }
+
+    private void registrar(String worker, String resultado, long inicio) {
+        Timer.builder("cluster.requisicoes")
+                .description("Espera pela resposta de cada worker no scatter-gather")
+                .tag("worker", worker)
+                .tag("resultado", resultado)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private String causa(Exception e) {
+        Throwable t = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        return t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+    }
+}
@@ -1,121 +1,135 @@
 package com.giovannyenes.estruturadados.service;
 
 import java.io.File;
-import java.io.FileReader;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Service;
 
+import com.giovannyenes.estruturadados.csv.FocosCsvParser;
 import com.giovannyenes.estruturadados.model.DadosDesmatamento;
-import com.giovannyenes.estruturadados.repository.DadosDesmatamentoRepository;
-import com.opencsv.CSVReader;
+import com.opencsv.CSVParser;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 
 
 @Service
 public class CsvLoaderService {
 
-    private final DadosDesmatamentoRepository repository;
-
-    public CsvLoaderService(DadosDesmatamentoRepository repository) {
-        this.repository = repository;
+    // possíveis formatos de data
+    private static final DateTimeFormatter[] FORMATOS = new DateTimeFormatter[]{
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd")
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final Counter fallbacksData;
+
+    public CsvLoaderService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.fallbacksData = Counter.builder("carga.data.fallbacks")
+                .description("Datas convertidas por um formato diferente do principal")
+                .register(meterRegistry);
     }
 
-    public void carregarCSV(String pasta) {
-        File dir = new File(pasta);
-        
-        // PRIORIZAR merged_data.csv para evitar duplicação
-        File[] arquivos = dir.listFiles((d, name) -> name.equalsIgnoreCase("merged_data.csv"));
-        
-        if (arquivos == null || arquivos.length == 0) {
-            System.out.println("ℹ️ merged_data.csv não encontrado. Carregando arquivos individuais...");
-            // Fallback: carregar apenas arquivos individuais (excluindo merged_data.csv)
-            arquivos = dir.listFiles((d, name) -> 
-                name.toLowerCase().endsWith(".csv") && 
-                !name.equalsIgnoreCase("merged_data.csv"));
-        } else {
-            System.out.println("✅ Usando merged_data.csv (arquivo consolidado)");
-        }
-        
-        if (arquivos == null || arquivos.length == 0) {
-            System.err.println("❌ Nenhum arquivo CSV encontrado na pasta: " + pasta);
-            return;
-        }
+    /**
+     * Lê um arquivo CSV do INPE e devolve os registros válidos.
+     *
+     * Chamado pelo ShardService na primeira consulta que precisa do arquivo; pode rodar
+     * em paralelo para arquivos diferentes (cada chamada usa seus próprios parsers).
+     *
+     * 🔸 Falha de leitura no meio do arquivo (I/O, arquivo truncado ou reescrito enquanto
+     *    mapeado) lança IllegalStateException: um shard pela metade nunca é devolvido
+     */
+    public List<DadosDesmatamento> carregarArquivo(File arquivo) {
+        long inicio = System.nanoTime();
+        Counter errosLinha = contadorErros(arquivo, "linha");
+        Counter errosData = contadorErros(arquivo, "data");
+        Counter linhasFallback = Counter.builder("carga.linhas.fallback")
+                .description("Linhas que o parser de bytes repassou ao OpenCSV")
+                .tag("arquivo", arquivo.getName())
+                .register(meterRegistry);
+        List<DadosDesmatamento> lista = new ArrayList<>();
 
-        // possíveis formatos de data
-        DateTimeFormatter[] formatos = new DateTimeFormatter[]{
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd")
-        };
-
-        for (File arquivo : arquivos) {
-            try (CSVReader reader = new CSVReader(new FileReader(arquivo))) {
-                List<String[]> linhas = reader.readAll();
-                List<DadosDesmatamento> lista = new ArrayList<>();
-
-                if (linhas.size() <= 1) {
-                    System.out.println("⚠️ Arquivo vazio ou sem dados: " + arquivo.getName());
-                    continue;
-                }
-
-                for (String[] l : linhas.subList(1, linhas.size())) {
-                    try {
-                        if (l == null || l.length < 9) continue;
-                        for (int i = 0; i < l.length; i++) {
-                            if (l[i] != null) l[i] = l[i].trim();
-                        }
-
-                        String idBdq = l[0];
-                        String focoId = l[1];
-                        double latitude = Double.parseDouble(l[2].replace(",", "."));
-                        double longitude = Double.parseDouble(l[3].replace(",", "."));
-                        String dataStr = l[4];
-                        String pais = l[5];
-                        String estado = l[6];
-                        String municipio = l[7];
-                        String bioma = l[8];
-
-                        LocalDate data = parseData(dataStr, formatos);
-                        if (data == null) {
-                            System.err.println("⚠️ Não foi possível converter a data: " + dataStr);
-                            continue;
-                        }
-
-                        DadosDesmatamento area = new DadosDesmatamento(
-                                idBdq, focoId, latitude, longitude,
-                                pais, estado, municipio, bioma, data
-                        );
-
-                        lista.add(area);
-
-                    } catch (Exception ex) {
-                        System.err.println("⚠️ Erro ao processar linha: " + String.join(",", l) + " -> " + ex.getMessage());
-                    }
-                }
-
-                if (!lista.isEmpty()) {
-                    repository.saveAll(lista);
-                    System.out.println("✅ " + arquivo.getName() + " importado (" + lista.size() + " registros)");
-                } else {
-                    System.out.println("⚠️ Nenhum registro válido no arquivo " + arquivo.getName());
-                }
-
-            } catch (Exception e) {
-                System.err.println("❌ Erro ao processar " + arquivo.getName() + ": " + e.getMessage());
+        try {
+            CSVParser parserTradicional = new CSVParser();
+
+            // Caminho rápido sobre os bytes; linhas fora do padrão seguem o caminho do OpenCSV
+            long linhas = new FocosCsvParser().ler(arquivo.toPath(), lista::add, linha -> {
+                linhasFallback.increment();
+                DadosDesmatamento area = converterLinha(parserTradicional, linha, FORMATOS, errosLinha, errosData);
+                if (area != null) lista.add(area);
+            });
+
+            if (linhas == 0) {
+                System.out.println("⚠️ Arquivo vazio ou sem dados: " + arquivo.getName());
+            } else if (!lista.isEmpty()) {
+                long nanos = System.nanoTime() - inicio;
+                registrarArquivo(arquivo, lista.size(), nanos);
+                double linhasPorSegundo = lista.size() / (nanos / 1_000_000_000.0);
+                System.out.println("✅ " + arquivo.getName() + " importado (" + lista.size() + " registros, "
+                        + String.format("%.0f", linhasPorSegundo) + " linhas/s)");
+            } else {
+                System.out.println("⚠️ Nenhum registro válido no arquivo " + arquivo.getName());
             }
+
+        } catch (Exception | InternalError e) {
+            // InternalError: acesso a uma página do MappedByteBuffer que deixou de existir no disco
+            System.err.println("❌ Erro ao processar " + arquivo.getName() + ": " + e.getMessage());
+            throw new IllegalStateException("Falha ao ler " + arquivo.getName(), e);
         }
+        return lista;
+    }
+
+    /** Caminho tradicional (OpenCSV + DateTimeFormatter) para linhas que o parser de bytes recusou. */
+    private DadosDesmatamento converterLinha(CSVParser csvParser, String linha, DateTimeFormatter[] formatos,
+                                             Counter errosLinha, Counter errosData) {
+        String[] l = null;
+        try {
+            l = csvParser.parseLine(linha);
+            if (l == null || l.length < 9) return null;
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] != null) l[i] = l[i].trim();
+            }
 
-        long totalFinal = repository.count();
-        System.out.println("=".repeat(60));
-        System.out.println("🎉 CARGA CONCLUÍDA!");
-        System.out.println("📊 Total de registros no banco: " + totalFinal);
-        System.out.println("=".repeat(60));
+            // id_bdq numérico e foco_id UUID: fora disso a linha conta como erro de linha
+            long idBdq = Long.parseLong(l[0]);
+            UUID focoId = UUID.fromString(l[1]);
+            double latitude = Double.parseDouble(l[2].replace(",", "."));
+            double longitude = Double.parseDouble(l[3].replace(",", "."));
+            String dataStr = l[4];
+            String pais = l[5];
+            String estado = l[6];
+            String municipio = l[7];
+            String bioma = l[8];
+
+            LocalDate data = parseData(dataStr, formatos);
+            if (data == null) {
+                errosData.increment();
+                System.err.println("⚠️ Não foi possível converter a data: " + dataStr);
+                return null;
+            }
+
+            return new DadosDesmatamento(
+                    idBdq, focoId.getMostSignificantBits(), focoId.getLeastSignificantBits(), latitude, longitude,
+                    pais, estado, municipio, bioma, (int) data.toEpochDay()
+            );
+
+        } catch (Exception ex) {
+            errosLinha.increment();
+            System.err.println("⚠️ Erro ao processar linha: " + (l != null ? String.join(",", l) : linha) + " -> " + ex.getMessage());
+            return null;
+        }
     }
 
     private LocalDate parseData(String dataStr, DateTimeFormatter... formatters) {
@@ -123,18 +137,45 @@ public class CsvLoaderService {
 
         dataStr = dataStr.trim();
 
-        for (DateTimeFormatter f : formatters) {
+        for (int i = 0; i < formatters.length; i++) {
             try {
-                return LocalDate.parse(dataStr, f);
+                LocalDate data = LocalDate.parse(dataStr, formatters[i]);
+                if (i > 0) fallbacksData.increment();
+                return data;
             } catch (DateTimeParseException ignored) {}
         }
 
         // fallback para casos tipo "2003-05-15 00:00:00"
         String possibleDateOnly = dataStr.split(" ")[0];
         try {
-            return LocalDate.parse(possibleDateOnly, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            LocalDate data = LocalDate.parse(possibleDateOnly, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            fallbacksData.increment();
+            return data;
         } catch (DateTimeParseException ignored) {}
 
         return null;
     }
+
+    // ========== MÉTRICAS DE CARGA ==========
+
+    private Counter contadorErros(File arquivo, String tipo) {
+        return Counter.builder("carga.erros")
+                .description("Linhas descartadas durante a carga")
+                .tag("arquivo", arquivo.getName())
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+    }
+
+    private void registrarArquivo(File arquivo, int registros, long nanos) {
+        Timer.builder("carga.arquivo.duracao")
+                .description("Tempo de leitura e conversão de um arquivo CSV")
+                .tag("arquivo", arquivo.getName())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder("carga.linhas")
+                .description("Registros importados por arquivo")
+                .tag("arquivo", arquivo.getName())
+                .register(meterRegistry)
+                .increment(registros);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.giovannyenes.estruturadados.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.giovannyenes.estruturadados.model.DadosDesmatamento;
+
+/**
+ * Dimensão de agrupamento das contagens (ano, mês, bioma...).
+ *
+ * 🔸 Tem nome para poder ser pedida a outras instâncias (/api/interno/contagem?dimensao=...)
+ * 🔸 Sabe extrair a chave de um registro e reconstruí-la a partir do texto do JSON
+ */
+public final class Dimensao<K> {
+
+    public static final Dimensao<Integer> ANO = new Dimensao<>("ano",
+            d -> d.getData().getYear(), Integer::valueOf);
+    public static final Dimensao<Integer> MES = new Dimensao<>("mes",
+            d -> d.getData().getMonthValue(), Integer::valueOf);
+    public static final Dimensao<String> ESTACAO = new Dimensao<>("estacao",
+            d -> estacao(d.getData().getMonthValue()), Function.identity());
+    public static final Dimensao<String> BIOMA = new Dimensao<>("bioma",
+            DadosDesmatamento::getBioma, Function.identity());
+    public static final Dimensao<String> MUNICIPIO = new Dimensao<>("municipio",
+            d -> d.getMunicipio() != null && !d.getMunicipio().isBlank() ? d.getMunicipio() : null, Function.identity());
+    public static final Dimensao<UUID> FOCO = new Dimensao<>("foco",
+            DadosDesmatamento::getFocoId, UUID::fromString);
+
+    private static final Map<String, Dimensao<?>> POR_NOME = new LinkedHashMap<>();
+    static {
+        for (Dimensao<?> d : new Dimensao<?>[]{ANO, MES, ESTACAO, BIOMA, MUNICIPIO, FOCO}) POR_NOME.put(d.nome, d);
+    }
+
+    private final String nome;
+    private final Function<DadosDesmatamento, K> chave;
+    private final Function<String, K> deTexto;
+
+    private Dimensao(String nome, Function<DadosDesmatamento, K> chave, Function<String, K> deTexto) {
+        this.nome = nome;
+        this.chave = chave;
+        this.deTexto = deTexto;
+    }
+
+    /** Dimensão pelo nome, ou IllegalArgumentException se não existir. */
+    public static Dimensao<?> porNome(String nome) {
+        Dimensao<?> d = POR_NOME.get(nome);
+        if (d == null) throw new IllegalArgumentException("Dimensão desconhecida: " + nome + " (use " + POR_NOME.keySet() + ")");
+        return d;
+    }
+
+    public String getNome() { return nome; }
+
+    /** Chave do registro nesta dimensão, ou null para ignorá-lo. */
+    public K chave(DadosDesmatamento d) { return chave.apply(d); }
+
+    /** Reconstrói a chave recebida como texto (chaves de objetos JSON são sempre Strings). */
+    public K deTexto(String texto) { return deTexto.apply(texto); }
+
+    /** Retorna a estação do ano com base no mês (Hemisfério Sul). */
+    static String estacao(int mes) {
+        return switch (mes) {
+            case 12, 1, 2 -> "Verão";
+            case 3, 4, 5 -> "Outono";
+            case 6, 7, 8 -> "Inverno";
+            case 9, 10, 11 -> "Primavera";
+            default -> "Desconhecida";
+        };
+    }
+}
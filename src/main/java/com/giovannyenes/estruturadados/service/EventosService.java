@@ -0,0 +1,434 @@
+package com.giovannyenes.estruturadados.service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giovannyenes.estruturadados.model.DadosDesmatamento;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Eventos (Server-Sent Events) com o que mudou a cada ingestão de dados.
+ *
+ * 🧠 Fluxo:
+ * 1. Cada carga de shard gera um resumo pequeno: contagens por ano, mês, estação, bioma e município
+ * 2. Numa ingestão (ShardService.aoIngerir) o resumo novo é comparado com o anterior
+ *    e só as chaves que mudaram entram no delta, agrupado por UF
+ * 3. Ingestões dentro de analise.eventos.janela-ms viram um único evento
+ * 4. O evento é serializado uma vez e os mesmos bytes vão para todos os clientes
+ * 5. O ranking de municípios do evento sai da soma dos resumos (mantida a cada carga),
+ *    sem varrer nenhum shard
+ *
+ * 🔸 Sem ingestão nenhuma thread trabalha: só o heartbeat (comentário SSE) a cada
+ *    analise.eventos.heartbeat-ms mantém proxies e detecta conexões mortas
+ * 🔸 Backpressure: cada cliente tem no máximo um evento na fila. Se outro chega antes do
+ *    envio, o cliente está atrasado e os dois viram um "recarregar" (o painel busca tudo de novo,
+ *    barato com o cache de respostas)
+ * 🔸 Um send que não termina em analise.eventos.envio-timeout-ms (cliente que parou de ler)
+ *    derruba o cliente; a thread presa no write é reposta no pool até o Tomcat desistir dela
+ * 🔸 No modo cluster só as ingestões desta instância geram eventos
+ * 🔸 Sem o resumo de todos os shards (algum nunca foi lido) ou no modo cluster, o evento vai
+ *    sem ranking e o painel busca /ranking-municipios
+ */
+@Service
+public class EventosService {
+
+    private static final List<Dimensao<?>> DIMENSOES = List.of(
+            Dimensao.ANO, Dimensao.MES, Dimensao.ESTACAO, Dimensao.BIOMA, Dimensao.MUNICIPIO);
+
+    /** Contagens de um shard por dimensão (nome da dimensão → chave → quantidade). */
+    private record Resumo(String uf, Map<String, Map<String, Long>> contagens) {}
+
+    private static final long TRAVADO = -1;
+
+    private static final Comparator<Map.Entry<String, Long>> RANKING =
+            Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    /** Evento já serializado; nome null = heartbeat (comentário). */
+    private record Evento(long id, String nome, String dados) {}
+
+    private static final class Cliente {
+        final SseEmitter emitter;
+        final AtomicReference<Evento> proximo = new AtomicReference<>();
+        final AtomicBoolean enviando = new AtomicBoolean();
+        // Início (nanoTime) do send em andamento; 0 = parado, TRAVADO = descartado pelo vigia
+        final AtomicLong enviandoDesde = new AtomicLong();
+
+        Cliente(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private final ShardService shardService;
+    private final ClusterService clusterService;
+    private final ObjectMapper objectMapper;
+    private final long janela;
+    private final long timeout;
+    private final int maxClientes;
+    private final int rankingTop;
+    private final long envioTimeout;
+
+    private final Map<String, Resumo> resumos = new HashMap<>();
+    private final Map<String, Resumo> anteriores = new HashMap<>();
+    // Focos por município somando o resumo atual de cada shard
+    private final Map<String, Long> totalMunicipios = new HashMap<>();
+    // Delta acumulado desde o último evento: UF → dimensão → chave → diferença
+    private final Map<String, Map<String, Map<String, Long>>> pendente = new TreeMap<>();
+    private boolean recarregarPendente;
+    private ScheduledFuture<?> publicacaoAgendada;
+
+    private final List<Cliente> clientes = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final ScheduledExecutorService agendador;
+    private final ThreadPoolExecutor envio;
+
+    private final Counter eventosDelta;
+    private final Counter eventosRecarregar;
+    private final Counter atrasados;
+    private final Counter travados;
+
+    public EventosService(ShardService shardService, ClusterService clusterService, ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${analise.eventos.janela-ms:500}") long janela,
+                          @Value("${analise.eventos.heartbeat-ms:30000}") long heartbeat,
+                          @Value("${analise.eventos.timeout-ms:1800000}") long timeout,
+                          @Value("${analise.eventos.max-clientes:1000}") int maxClientes,
+                          @Value("${analise.eventos.threads:4}") int threads,
+                          @Value("${analise.eventos.ranking-top:20}") int rankingTop,
+                          @Value("${analise.eventos.envio-timeout-ms:5000}") long envioTimeoutMs) {
+        this.shardService = shardService;
+        this.clusterService = clusterService;
+        this.objectMapper = objectMapper;
+        this.janela = janela;
+        this.timeout = timeout;
+        this.maxClientes = maxClientes;
+        this.rankingTop = rankingTop;
+        this.envioTimeout = TimeUnit.MILLISECONDS.toNanos(envioTimeoutMs);
+
+        this.agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "eventos-agendador");
+            t.setDaemon(true);
+            return t;
+        });
+        this.envio = (ThreadPoolExecutor) Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "eventos-envio");
+            t.setDaemon(true);
+            return t;
+        });
+        if (heartbeat > 0) {
+            agendador.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        }
+        if (envioTimeoutMs > 0) {
+            long intervalo = Math.max(100, envioTimeoutMs / 2);
+            agendador.scheduleWithFixedDelay(this::vigiarEnvios, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        }
+
+        Gauge.builder("eventos.clientes", clientes, List::size)
+                .description("Clientes conectados em /api/analise/eventos")
+                .register(meterRegistry);
+        this.eventosDelta = Counter.builder("eventos.publicados").tag("tipo", "delta")
+                .description("Eventos publicados após ingestões")
+                .register(meterRegistry);
+        this.eventosRecarregar = Counter.builder("eventos.publicados").tag("tipo", "recarregar")
+                .description("Eventos publicados após ingestões")
+                .register(meterRegistry);
+        this.atrasados = Counter.builder("eventos.clientes.atrasados")
+                .description("Vezes em que um cliente não tinha recebido o evento anterior e ganhou um recarregar")
+                .register(meterRegistry);
+        this.travados = Counter.builder("eventos.clientes.travados")
+                .description("Clientes desconectados por não lerem um evento dentro de analise.eventos.envio-timeout-ms")
+                .register(meterRegistry);
+        Gauge.builder("eventos.envio.threads", envio, ThreadPoolExecutor::getMaximumPoolSize)
+                .description("Threads de envio (as fixas + as repostas no lugar de envios travados)")
+                .register(meterRegistry);
+
+        shardService.aoCarregar(this::resumir);
+        shardService.aoIngerir(this::aoIngerir);
+    }
+
+    // ============================================================
+    // 🔹 CONEXÃO
+    // ============================================================
+
+    /**
+     * Abre a conexão SSE.
+     *
+     * 🔸 O primeiro evento é "conectado" (sequência e versão atuais)
+     * 🔸 Reconexão com Last-Event-ID antigo → "recarregar", pois os deltas perdidos não são guardados
+     */
+    public SseEmitter conectar(String ultimoId) {
+        if (clientes.size() >= maxClientes) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Limite de " + maxClientes + " clientes atingido");
+        }
+        Cliente cliente = new Cliente(new SseEmitter(timeout));
+        cliente.emitter.onCompletion(() -> clientes.remove(cliente));
+        cliente.emitter.onTimeout(() -> clientes.remove(cliente));
+        cliente.emitter.onError(e -> clientes.remove(cliente));
+        clientes.add(cliente);
+
+        long atual = sequencia.get();
+        boolean perdeuEventos = ultimoId != null && !ultimoId.isBlank() && !ultimoId.trim().equals(String.valueOf(atual));
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put("sequencia", atual);
+        dados.put("versao", shardService.getVersao());
+        cliente.proximo.set(new Evento(atual, perdeuEventos ? "recarregar" : "conectado", serializar(dados)));
+        agendarEnvio(cliente);
+        return cliente.emitter;
+    }
+
+    // ============================================================
+    // 🔹 RESUMOS E DELTAS
+    // ============================================================
+
+    /** Resumo de cada carga; o anterior fica guardado para comparar se a carga for uma ingestão. */
+    private void resumir(ShardService.Shard shard, List<DadosDesmatamento> registros) {
+        Map<String, Map<String, Long>> contagens = new HashMap<>();
+        for (Dimensao<?> dimensao : DIMENSOES) {
+            Map<String, Long> porChave = new HashMap<>();
+            for (DadosDesmatamento d : registros) {
+                Object chave = dimensao.chave(d);
+                if (chave != null) porChave.merge(chave.toString(), 1L, Long::sum);
+            }
+            contagens.put(dimensao.getNome(), porChave);
+        }
+        synchronized (this) {
+            Resumo anterior = resumos.put(shard.getChave(), new Resumo(shard.getUf(), contagens));
+            if (anterior != null) {
+                anteriores.put(shard.getChave(), anterior);
+                somarMunicipios(anterior, -1);
+            }
+            somarMunicipios(resumos.get(shard.getChave()), 1);
+        }
+    }
+
+    private void somarMunicipios(Resumo resumo, int sinal) {
+        resumo.contagens().getOrDefault(Dimensao.MUNICIPIO.getNome(), Map.of()).forEach((municipio, n) -> {
+            long total = totalMunicipios.getOrDefault(municipio, 0L) + sinal * n;
+            if (total == 0) totalMunicipios.remove(municipio);
+            else totalMunicipios.put(municipio, total);
+        });
+    }
+
+    /**
+     * Top N municípios (mesma ordem de AnaliseService.rankingMunicipios: contagem decrescente,
+     * empate pelo nome), ou null se os resumos não cobrem todos os dados consultáveis.
+     */
+    private Map<String, Long> ranking(Set<String> shardsCatalogados) {
+        if (clusterService.isAtivo() || !resumos.keySet().containsAll(shardsCatalogados)) return null;
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(RANKING.reversed());
+        for (Map.Entry<String, Long> e : totalMunicipios.entrySet()) {
+            top.add(e);
+            if (top.size() > rankingTop) top.poll();
+        }
+        List<Map.Entry<String, Long>> ordenados = new ArrayList<>(top);
+        ordenados.sort(RANKING);
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> e : ordenados) resultado.put(e.getKey(), e.getValue());
+        return resultado;
+    }
+
+    private synchronized void aoIngerir(ShardService.Ingestao ingestao) {
+        for (ShardService.Shard shard : ingestao.novos()) {
+            Resumo atual = resumos.get(shard.getChave());
+            if (atual != null) acumular(new Resumo(shard.getUf(), Map.of()), atual);
+        }
+        for (ShardService.Shard shard : ingestao.alterados()) {
+            Resumo anterior = anteriores.remove(shard.getChave());
+            Resumo atual = resumos.get(shard.getChave());
+            // Shard nunca lido antes da mudança: não há com o que comparar
+            if (anterior == null || atual == null) recarregarPendente = true;
+            else acumular(anterior, atual);
+        }
+        if ((recarregarPendente || !pendente.isEmpty()) && publicacaoAgendada == null) {
+            publicacaoAgendada = agendador.schedule(this::publicar, janela, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Soma ao delta pendente a diferença atual - anterior (chaves sem diferença não entram). */
+    private void acumular(Resumo anterior, Resumo atual) {
+        Map<String, Map<String, Long>> porDimensao = pendente.computeIfAbsent(atual.uf(), uf -> new TreeMap<>());
+        for (Dimensao<?> dimensao : DIMENSOES) {
+            Map<String, Long> antes = anterior.contagens().getOrDefault(dimensao.getNome(), Map.of());
+            Map<String, Long> depois = atual.contagens().getOrDefault(dimensao.getNome(), Map.of());
+            Map<String, Long> delta = porDimensao.computeIfAbsent(dimensao.getNome(), n -> new TreeMap<>());
+
+            Set<String> chaves = new HashSet<>(antes.keySet());
+            chaves.addAll(depois.keySet());
+            for (String chave : chaves) {
+                long diferenca = depois.getOrDefault(chave, 0L) - antes.getOrDefault(chave, 0L);
+                if (diferenca == 0) continue;
+                long total = delta.getOrDefault(chave, 0L) + diferenca;
+                if (total == 0) delta.remove(chave);
+                else delta.put(chave, total);
+            }
+            if (delta.isEmpty()) porDimensao.remove(dimensao.getNome());
+        }
+        if (porDimensao.isEmpty()) pendente.remove(atual.uf());
+    }
+
+    // ============================================================
+    // 🔹 PUBLICAÇÃO
+    // ============================================================
+
+    /** Fecha a janela: monta um único evento com tudo o que mudou e envia para todos. */
+    private void publicar() {
+        Set<String> catalogados = new HashSet<>();
+        for (ShardService.Shard shard : shardService.selecionar(null, null)) catalogados.add(shard.getChave());
+
+        Map<String, Map<String, Map<String, Long>>> deltas;
+        Map<String, Long> ranking;
+        boolean recarregar;
+        synchronized (this) {
+            deltas = new TreeMap<>(pendente);
+            recarregar = recarregarPendente;
+            ranking = recarregar ? null : ranking(catalogados);
+            pendente.clear();
+            recarregarPendente = false;
+            publicacaoAgendada = null;
+        }
+        if (deltas.isEmpty() && !recarregar) return;
+
+        long id = sequencia.incrementAndGet();
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put("sequencia", id);
+        dados.put("versao", shardService.getVersao());
+        Evento evento;
+        try {
+            if (!recarregar) {
+                dados.put("deltas", deltas);
+                // Ranking completo (e não delta): entradas e saídas do top N mudam a lista inteira
+                if (ranking != null) dados.put("ranking", ranking);
+            }
+            evento = new Evento(id, recarregar ? "recarregar" : "delta", serializar(dados));
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Falha ao montar o delta (" + e.getMessage() + ") — enviando recarregar");
+            dados.remove("deltas");
+            dados.remove("ranking");
+            evento = new Evento(id, "recarregar", serializar(dados));
+        }
+        ("delta".equals(evento.nome()) ? eventosDelta : eventosRecarregar).increment();
+        System.out.println("📡 Evento " + evento.nome() + " #" + id + " para " + clientes.size() + " cliente(s)");
+
+        for (Cliente cliente : clientes) {
+            Evento anterior = cliente.proximo.getAndSet(evento);
+            if (anterior != null && anterior.nome() != null && !"recarregar".equals(evento.nome())) {
+                // O anterior ainda não saiu: mandar só o novo perderia o delta anterior
+                atrasados.increment();
+                cliente.proximo.set(new Evento(id, "recarregar", recarregar(id)));
+            }
+            agendarEnvio(cliente);
+        }
+    }
+
+    private void heartbeat() {
+        Evento ping = new Evento(sequencia.get(), null, "ping");
+        for (Cliente cliente : clientes) {
+            if (cliente.proximo.compareAndSet(null, ping)) agendarEnvio(cliente);
+        }
+    }
+
+    /** No máximo um envio em andamento por cliente; um cliente lento não segura os outros. */
+    private void agendarEnvio(Cliente cliente) {
+        if (cliente.enviando.compareAndSet(false, true)) {
+            envio.execute(() -> drenar(cliente));
+        }
+    }
+
+    private void drenar(Cliente cliente) {
+        try {
+            Evento evento;
+            while ((evento = cliente.proximo.getAndSet(null)) != null) {
+                long inicio = System.nanoTime();
+                cliente.enviandoDesde.set(inicio);
+                try {
+                    if (evento.nome() == null) {
+                        cliente.emitter.send(SseEmitter.event().comment(evento.dados()));
+                    } else {
+                        cliente.emitter.send(SseEmitter.event()
+                                .id(String.valueOf(evento.id()))
+                                .name(evento.nome())
+                                .data(evento.dados(), MediaType.APPLICATION_JSON));
+                    }
+                } finally {
+                    // Falhou o CAS → o vigia já descartou o cliente e pôs outra thread no lugar desta
+                    if (!cliente.enviandoDesde.compareAndSet(inicio, 0)) ajustarThreads(-1);
+                }
+                if (cliente.enviandoDesde.get() == TRAVADO) return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Conexão fechada pelo cliente (ou emitter já encerrado)
+            clientes.remove(cliente);
+            cliente.proximo.set(null);
+            return;
+        } finally {
+            cliente.enviando.set(false);
+        }
+        if (cliente.proximo.get() != null) agendarEnvio(cliente);
+    }
+
+    /**
+     * Derruba os clientes com um send parado há mais de envio-timeout-ms.
+     *
+     * 🧠 O write bloqueado não pode ser interrompido daqui (o emitter fica travado até o Tomcat
+     *    desistir do socket), então o cliente só sai da lista e o pool ganha uma thread
+     *    enquanto a presa não volta: os outros clientes continuam com as mesmas threads livres
+     */
+    private void vigiarEnvios() {
+        long agora = System.nanoTime();
+        for (Cliente cliente : clientes) {
+            long desde = cliente.enviandoDesde.get();
+            if (desde <= 0 || agora - desde < envioTimeout) continue;
+            if (!cliente.enviandoDesde.compareAndSet(desde, TRAVADO)) continue;
+            clientes.remove(cliente);
+            cliente.proximo.set(null);
+            travados.increment();
+            ajustarThreads(1);
+            System.err.println("⚠️ Cliente SSE não lê há mais de "
+                    + TimeUnit.NANOSECONDS.toMillis(envioTimeout) + " ms — desconectado");
+        }
+    }
+
+    private void ajustarThreads(int diferenca) {
+        synchronized (envio) {
+            int threads = envio.getMaximumPoolSize() + diferenca;
+            // core ≤ máximo em todo momento
+            if (diferenca > 0) {
+                envio.setMaximumPoolSize(threads);
+                envio.setCorePoolSize(threads);
+            } else {
+                envio.setCorePoolSize(threads);
+                envio.setMaximumPoolSize(threads);
+            }
+        }
+    }
+
+    private String recarregar(long id) {
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put("sequencia", id);
+        dados.put("versao", shardService.getVersao());
+        return serializar(dados);
+    }
+
+    private String serializar(Object dados) {
+        try {
+            return objectMapper.writeValueAsString(dados);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
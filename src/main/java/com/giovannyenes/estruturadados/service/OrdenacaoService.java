@@ -0,0 +1,125 @@
+package com.giovannyenes.estruturadados.service;
+
+import java.util.*;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.giovannyenes.estruturadados.ordenacao.AlgoritmoOrdenacao;
+
+/**
+ * Registro das estratégias de ordenação e benchmark comparativo entre elas.
+ *
+ * 🔸 Toda implementação de AlgoritmoOrdenacao registrada como bean entra automaticamente
+ * 🔸 Sem parâmetro "algoritmo" vale analise.ordenacao.padrao
+ */
+@Service
+public class OrdenacaoService {
+
+    private final Map<String, AlgoritmoOrdenacao> algoritmos = new LinkedHashMap<>();
+    private final AlgoritmoOrdenacao padrao;
+
+    public OrdenacaoService(List<AlgoritmoOrdenacao> algoritmos,
+                            @Value("${analise.ordenacao.padrao:introsort}") String padrao) {
+        for (AlgoritmoOrdenacao a : algoritmos) this.algoritmos.put(a.getNome(), a);
+        this.padrao = this.algoritmos.get(padrao);
+        if (this.padrao == null) {
+            throw new IllegalStateException("Algoritmo de ordenação padrão desconhecido: " + padrao
+                    + " (disponíveis: " + this.algoritmos.keySet() + ")");
+        }
+    }
+
+    /** Estratégia pelo nome; vazio = padrão. Nome desconhecido → 400. */
+    public AlgoritmoOrdenacao algoritmo(String nome) {
+        if (nome == null || nome.isBlank()) return padrao;
+        AlgoritmoOrdenacao a = algoritmos.get(nome.trim().toLowerCase());
+        if (a == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Algoritmo desconhecido: " + nome + " (disponíveis: " + algoritmos.keySet() + ")");
+        }
+        return a;
+    }
+
+    /**
+     * Mede cada algoritmo sobre cada conjunto de dados.
+     *
+     * 🔸 Cada execução ordena uma cópia nova do vetor; a primeira é descartada (aquecimento do JIT)
+     * 🔸 Retorna mediana e mínimo em ms, e se o resultado ficou realmente em ordem
+     */
+    public Map<String, Object> benchmark(Map<String, long[]> numericos, Map<String, String[]> textos, int repeticoes) {
+        Map<String, Object> conjuntos = new LinkedHashMap<>();
+        numericos.forEach((nome, dados) -> {
+            Map<String, Object> porAlgoritmo = new LinkedHashMap<>();
+            for (AlgoritmoOrdenacao a : algoritmos.values()) {
+                long[] tempos = new long[repeticoes];
+                boolean ordenado = true;
+                for (int r = -1; r < repeticoes; r++) {
+                    long[] copia = dados.clone();
+                    long inicio = System.nanoTime();
+                    a.ordenar(copia);
+                    long fim = System.nanoTime();
+                    if (r < 0) ordenado = emOrdem(copia);
+                    else tempos[r] = fim - inicio;
+                }
+                porAlgoritmo.put(a.getNome(), resultado(tempos, ordenado));
+            }
+            conjuntos.put(nome, conjunto(dados.length, porAlgoritmo));
+        });
+        textos.forEach((nome, dados) -> {
+            Map<String, Object> porAlgoritmo = new LinkedHashMap<>();
+            for (AlgoritmoOrdenacao a : algoritmos.values()) {
+                long[] tempos = new long[repeticoes];
+                boolean ordenado = true;
+                for (int r = -1; r < repeticoes; r++) {
+                    String[] copia = dados.clone();
+                    long inicio = System.nanoTime();
+                    a.ordenar(copia);
+                    long fim = System.nanoTime();
+                    if (r < 0) ordenado = emOrdem(copia);
+                    else tempos[r] = fim - inicio;
+                }
+                porAlgoritmo.put(a.getNome(), resultado(tempos, ordenado));
+            }
+            conjuntos.put(nome, conjunto(dados.length, porAlgoritmo));
+        });
+
+        Map<String, String> descricoes = new LinkedHashMap<>();
+        algoritmos.values().forEach(a -> descricoes.put(a.getNome(), a.getDescricao()));
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("padrao", padrao.getNome());
+        resposta.put("repeticoes", repeticoes);
+        resposta.put("algoritmos", descricoes);
+        resposta.put("conjuntos", conjuntos);
+        return resposta;
+    }
+
+    private Map<String, Object> conjunto(int tamanho, Map<String, Object> porAlgoritmo) {
+        Map<String, Object> c = new LinkedHashMap<>();
+        c.put("tamanho", tamanho);
+        c.put("resultados", porAlgoritmo);
+        return c;
+    }
+
+    private Map<String, Object> resultado(long[] tempos, boolean ordenado) {
+        long[] t = tempos.clone();
+        padrao.ordenar(t);
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("medianaMs", t.length == 0 ? 0 : Math.round(t[t.length / 2] / 1_000.0) / 1_000.0);
+        r.put("minimoMs", t.length == 0 ? 0 : Math.round(t[0] / 1_000.0) / 1_000.0);
+        r.put("ordenado", ordenado);
+        return r;
+    }
+
+    private boolean emOrdem(long[] v) {
+        for (int i = 1; i < v.length; i++) if (v[i - 1] > v[i]) return false;
+        return true;
+    }
+
+    private boolean emOrdem(String[] v) {
+        for (int i = 1; i < v.length; i++) if (v[i - 1].compareTo(v[i]) > 0) return false;
+        return true;
+    }
+}
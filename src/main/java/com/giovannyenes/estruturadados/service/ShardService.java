@@ -0,0 +1,480 @@
+package com.giovannyenes.estruturadados.service;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.giovannyenes.estruturadados.model.DadosDesmatamento;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Dataset particionado em shards independentes por estado (UF) e ano.
+ *
+ * 🧠 Cada arquivo focos_br_{uf}_ref_{ano}.csv é um shard:
+ * - Catalogado na inicialização, mas lido só na primeira consulta que precisa dele
+ * - Despejado (LRU) quando a memória estimada passa do limite ou o heap está quase cheio
+ * - Varrido em paralelo com os demais shards selecionados; os resultados parciais são mesclados
+ *
+ * A versão dos dados (tamanho e data de modificação dos arquivos catalogados) muda quando
+ * um arquivo novo ou alterado é ingerido; despejos não mudam a versão. A pasta é verificada
+ * a cada analise.shards.verificar-ms e cada verificação com mudanças é uma ingestão.
+ */
+@Service
+public class ShardService {
+
+    private static final Pattern NOME_ARQUIVO = Pattern.compile("focos_br_([a-z]{2})_ref_(\\d{4})\\.csv",
+            Pattern.CASE_INSENSITIVE);
+    // Custo de um registro em memória (heap comprimido): objeto (72) + referência na lista (4)
+    private static final long BYTES_POR_REGISTRO = 76;
+    private static final double FRACAO_MAXIMA_HEAP = 0.85;
+
+    /** Um arquivo (UF, ano) e, quando carregado, seus registros. */
+    public static final class Shard {
+        private final String uf;
+        private final int ano;
+        private final File arquivo;
+        private volatile List<DadosDesmatamento> registros;
+        private long bytes;
+        private long tamanhoArquivo;
+        private long modificadoEm;
+
+        Shard(String uf, int ano, File arquivo) {
+            this.uf = uf;
+            this.ano = ano;
+            this.arquivo = arquivo;
+            this.tamanhoArquivo = arquivo.length();
+            this.modificadoEm = arquivo.lastModified();
+        }
+
+        public String getUf() { return uf; }
+
+        public int getAno() { return ano; }
+
+        public String getChave() { return uf + "/" + ano; }
+
+        public boolean isCarregado() { return registros != null; }
+    }
+
+    /** Shards lidos em uma ingestão: arquivos que apareceram e arquivos que mudaram no disco. */
+    public record Ingestao(List<Shard> novos, List<Shard> alterados) {}
+
+    /** Lista lida do arquivo, ainda não publicada, com os atributos do arquivo antes da leitura. */
+    private record Carga(List<DadosDesmatamento> lista, long bytes, long tamanho, long modificadoEm) {}
+
+    private final CsvLoaderService loaderService;
+    private final long memoriaMaxima;
+    private final Set<String> estadosProprios;
+    private final int anoInicial;
+    private final int anoFinal;
+    private final Map<String, Shard> catalogo = new TreeMap<>();
+    // Ordem de acesso: o primeiro é o menos usado recentemente
+    private final LinkedHashMap<String, Shard> carregados = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<BiConsumer<Shard, List<DadosDesmatamento>>> ouvintesCarga = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Ingestao>> ouvintesIngestao = new CopyOnWriteArrayList<>();
+    // Uma ingestão por vez (verificação da pasta ou mudança percebida numa leitura)
+    private final Object ingestao = new Object();
+    private final long intervaloVerificacao;
+    private ScheduledExecutorService verificador;
+    private String pasta;
+
+    private volatile String versao = "";
+
+    private final AtomicLong registrosCarregados = new AtomicLong();
+    private final AtomicLong bytesEstimados = new AtomicLong();
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter despejos;
+
+    public ShardService(CsvLoaderService loaderService, MeterRegistry meterRegistry,
+                        @Value("${analise.shards.memoria-maxima-mb:1024}") long memoriaMaximaMb,
+                        @Value("${analise.shards.estados:}") List<String> estadosProprios,
+                        @Value("${analise.shards.anos:}") String anosProprios,
+                        @Value("${analise.shards.verificar-ms:30000}") long intervaloVerificacao) {
+        this.loaderService = loaderService;
+        this.intervaloVerificacao = intervaloVerificacao;
+        this.memoriaMaxima = memoriaMaximaMb * 1024 * 1024;
+        this.estadosProprios = new HashSet<>();
+        for (String uf : estadosProprios) {
+            if (!uf.isBlank()) this.estadosProprios.add(uf.trim().toUpperCase());
+        }
+        // "2003-2012", "2015" ou vazio (todos)
+        if (anosProprios.isBlank()) {
+            this.anoInicial = Integer.MIN_VALUE;
+            this.anoFinal = Integer.MAX_VALUE;
+        } else {
+            String[] partes = anosProprios.split("-");
+            this.anoInicial = Integer.parseInt(partes[0].trim());
+            this.anoFinal = Integer.parseInt(partes[partes.length - 1].trim());
+        }
+
+        Gauge.builder("dataset.registros", registrosCarregados, AtomicLong::get)
+                .description("Registros dos shards carregados")
+                .register(meterRegistry);
+        Gauge.builder("dataset.memoria.estimada", bytesEstimados, AtomicLong::get)
+                .description("Estimativa do heap ocupado pelos shards carregados")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("dataset.shards.carregados", carregados, this::quantidadeCarregados)
+                .description("Shards atualmente em memória")
+                .register(meterRegistry);
+        this.acertos = Counter.builder("dataset.shards.acessos").tag("resultado", "acerto")
+                .description("Acessos a shards já carregados (acerto) ou que exigiram leitura (falta)")
+                .register(meterRegistry);
+        this.faltas = Counter.builder("dataset.shards.acessos").tag("resultado", "falta")
+                .description("Acessos a shards já carregados (acerto) ou que exigiram leitura (falta)")
+                .register(meterRegistry);
+        this.despejos = Counter.builder("dataset.shards.despejos")
+                .description("Shards removidos da memória para respeitar o limite")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra os arquivos da pasta como shards, sem ler o conteúdo.
+     *
+     * 🔸 Com analise.shards.estados / analise.shards.anos a instância fica só com a sua
+     *    parte dos arquivos (modo cluster: cada worker com partições diferentes)
+     * 🔸 Depois disso a pasta passa a ser verificada periodicamente (verificarArquivos)
+     */
+    public synchronized void catalogar(String pasta) {
+        this.pasta = pasta;
+        File[] arquivos = listarCsv();
+        if (arquivos.length == 0) {
+            System.err.println("❌ Nenhum arquivo CSV encontrado na pasta: " + pasta);
+        }
+
+        for (File arquivo : arquivos) {
+            Shard shard = paraShard(arquivo, true);
+            if (shard != null) catalogo.put(shard.getChave(), shard);
+        }
+        atualizarVersao();
+        System.out.println("📂 " + catalogo.size() + " shards catalogados em " + pasta);
+
+        if (intervaloVerificacao > 0 && verificador == null) {
+            verificador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "verificar-arquivos");
+                t.setDaemon(true);
+                return t;
+            });
+            verificador.scheduleWithFixedDelay(this::verificarArquivosComSeguranca,
+                    intervaloVerificacao, intervaloVerificacao, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Ingere os arquivos novos ou alterados desde a última verificação.
+     *
+     * 🔸 Os shards afetados são lidos por inteiro antes de qualquer mudança visível; depois
+     *    as listas novas entram e a versão muda num único passo, sob o mesmo lock de
+     *    selecionar/registros (nenhuma consulta vê a versão nova com registros antigos)
+     * 🔸 Os ouvintes de ingestão recebem todos os shards juntos (um lote por verificação)
+     * 🔸 Arquivo que falha na leitura fica como estava e é tentado de novo na próxima verificação
+     * 🔸 Arquivos removidos da pasta não são tirados do catálogo
+     */
+    public void verificarArquivos() {
+        synchronized (ingestao) {
+            List<Shard> novos = new ArrayList<>();
+            List<Shard> alterados = new ArrayList<>();
+            synchronized (this) {
+                if (pasta == null) return;
+                for (File arquivo : listarCsv()) {
+                    Shard shard = paraShard(arquivo, false);
+                    if (shard == null) continue;
+                    Shard existente = catalogo.get(shard.getChave());
+                    if (existente == null) novos.add(shard);
+                    else if (mudouNoDisco(existente)) alterados.add(existente);
+                }
+            }
+            if (novos.isEmpty() && alterados.isEmpty()) return;
+
+            Map<Shard, Carga> cargas = new LinkedHashMap<>();
+            for (Shard shard : novos) lerParaIngestao(shard, cargas);
+            for (Shard shard : alterados) lerParaIngestao(shard, cargas);
+            novos.retainAll(cargas.keySet());
+            alterados.retainAll(cargas.keySet());
+            if (cargas.isEmpty()) return;
+
+            synchronized (this) {
+                for (Shard shard : novos) catalogo.put(shard.getChave(), shard);
+                cargas.forEach(this::instalar);
+                atualizarVersao();
+            }
+            System.out.println("📥 Ingestão: " + novos.size() + " shard(s) novo(s), " + alterados.size() + " alterado(s)");
+            notificarIngestao(new Ingestao(novos, alterados));
+        }
+    }
+
+    /** Identificador dos dados catalogados; muda se algum arquivo for alterado e relido. */
+    public String getVersao() {
+        return versao;
+    }
+
+    /** Registra uma ação executada a cada leitura de shard, inclusive recargas após despejo. */
+    public void aoCarregar(BiConsumer<Shard, List<DadosDesmatamento>> ouvinte) {
+        ouvintesCarga.add(ouvinte);
+    }
+
+    /** Registra uma ação executada quando dados novos ou alterados terminam de ser lidos. */
+    public void aoIngerir(Consumer<Ingestao> ouvinte) {
+        ouvintesIngestao.add(ouvinte);
+    }
+
+    /** Shards do estado (sigla, ex.: MG) e ano informados; null em qualquer um = todos. */
+    public synchronized List<Shard> selecionar(String estado, Integer ano) {
+        List<Shard> selecionados = new ArrayList<>();
+        for (Shard s : catalogo.values()) {
+            if (estado != null && !estado.isBlank() && !s.uf.equalsIgnoreCase(estado.trim())) continue;
+            if (ano != null && s.ano != ano) continue;
+            selecionados.add(s);
+        }
+        return selecionados;
+    }
+
+    /**
+     * Varre em paralelo os shards selecionados e mescla os resultados parciais.
+     *
+     * 🔸 parcial: executado uma vez por shard, sobre a lista de registros dele
+     * 🔸 mesclar: combina dois resultados parciais (pode alterar e retornar o primeiro)
+     */
+    public <R> R varrer(String estado, Integer ano, Function<List<DadosDesmatamento>, R> parcial,
+                        BinaryOperator<R> mesclar, R vazio) {
+        return selecionar(estado, ano).parallelStream()
+                .map(shard -> parcial.apply(registros(shard)))
+                .reduce(mesclar)
+                .orElse(vazio);
+    }
+
+    /**
+     * Registros do shard, lendo o arquivo se ainda não estiver em memória.
+     *
+     * 🔸 Se o arquivo mudou desde a última leitura (antes da próxima verificação da pasta),
+     *    a leitura vira uma ingestão: a versão só muda junto com a troca da lista
+     */
+    public List<DadosDesmatamento> registros(Shard shard) {
+        List<DadosDesmatamento> lista = shard.registros;
+        if (lista != null) {
+            acertos.increment();
+            tocar(shard);
+            return lista;
+        }
+
+        boolean alterado = false;
+        synchronized (shard) {
+            lista = shard.registros;
+            if (lista != null) {
+                acertos.increment();
+                return lista;
+            }
+            faltas.increment();
+            if (!mudouNoDisco(shard)) {
+                Carga carga = ler(shard);
+                instalar(shard, carga);
+                return carga.lista();
+            }
+
+            synchronized (ingestao) {
+                // Uma verificação da pasta pode ter ingerido este arquivo enquanto esperávamos
+                lista = shard.registros;
+                if (lista != null) return lista;
+                Carga carga = ler(shard);
+                synchronized (this) {
+                    alterado = instalar(shard, carga);
+                    if (alterado) atualizarVersao();
+                }
+                lista = carga.lista();
+            }
+        }
+        if (alterado) {
+            System.out.println("🔄 Arquivo do shard " + shard.getChave() + " mudou no disco — nova versão dos dados");
+            notificarIngestao(new Ingestao(List.of(), List.of(shard)));
+        }
+        return lista;
+    }
+
+    // ============================================================
+    // 🔹 MÉTODOS AUXILIARES
+    // ============================================================
+
+    private File[] listarCsv() {
+        File[] arquivos = new File(pasta).listFiles((d, name) -> name.toLowerCase().endsWith(".csv"));
+        return arquivos != null ? arquivos : new File[0];
+    }
+
+    /** Shard do arquivo, ou null se o nome não segue o padrão ou a partição é de outra instância. */
+    private Shard paraShard(File arquivo, boolean avisar) {
+        Matcher m = NOME_ARQUIVO.matcher(arquivo.getName());
+        if (!m.matches()) {
+            if (avisar) System.out.println("⚠️ Ignorando " + arquivo.getName() + " (esperado focos_br_<uf>_ref_<ano>.csv)");
+            return null;
+        }
+        Shard shard = new Shard(m.group(1).toUpperCase(), Integer.parseInt(m.group(2)), arquivo);
+        if (!estadosProprios.isEmpty() && !estadosProprios.contains(shard.uf)) return null;
+        if (shard.ano < anoInicial || shard.ano > anoFinal) return null;
+        return shard;
+    }
+
+    /** true se tamanho ou data de modificação do arquivo diferem dos da última leitura. */
+    private synchronized boolean mudouNoDisco(Shard shard) {
+        return shard.arquivo.length() != shard.tamanhoArquivo || shard.arquivo.lastModified() != shard.modificadoEm;
+    }
+
+    /**
+     * Lê o arquivo do shard sem publicar nada: os atributos são anotados antes da leitura
+     * (se o arquivo mudar durante a leitura, a próxima verificação percebe) e os ouvintes
+     * de carga recebem a lista antes que ela entre no shard.
+     */
+    private Carga ler(Shard shard) {
+        long tamanho = shard.arquivo.length();
+        long modificado = shard.arquivo.lastModified();
+        List<DadosDesmatamento> lista;
+        try {
+            lista = Collections.unmodifiableList(loaderService.carregarArquivo(shard.arquivo));
+        } catch (IllegalStateException e) {
+            // O shard continua como estava; a próxima consulta tenta ler de novo
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Shard " + shard.getChave() + " indisponível: " + e.getMessage(), e);
+        }
+        for (BiConsumer<Shard, List<DadosDesmatamento>> ouvinte : ouvintesCarga) {
+            ouvinte.accept(shard, lista);
+        }
+        return new Carga(lista, estimarBytes(lista), tamanho, modificado);
+    }
+
+    private void lerParaIngestao(Shard shard, Map<Shard, Carga> cargas) {
+        try {
+            cargas.put(shard, ler(shard));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Shard " + shard.getChave() + " não foi ingerido (nova tentativa na próxima verificação): "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Coloca a lista lida no shard (substituindo a anterior, se houver) e anota os atributos
+     * do arquivo. Retorna true se os atributos mudaram, ou seja, se o conteúdo é novo.
+     */
+    private synchronized boolean instalar(Shard shard, Carga carga) {
+        if (shard.registros != null) {
+            carregados.remove(shard.getChave());
+            esvaziar(shard);
+        }
+        liberarEspaco(carga.bytes());
+        shard.bytes = carga.bytes();
+        shard.registros = carga.lista();
+        carregados.put(shard.getChave(), shard);
+        registrosCarregados.addAndGet(carga.lista().size());
+        bytesEstimados.addAndGet(carga.bytes());
+
+        boolean mudou = carga.tamanho() != shard.tamanhoArquivo || carga.modificadoEm() != shard.modificadoEm;
+        shard.tamanhoArquivo = carga.tamanho();
+        shard.modificadoEm = carga.modificadoEm();
+        return mudou;
+    }
+
+    private void verificarArquivosComSeguranca() {
+        try {
+            verificarArquivos();
+        } catch (Throwable e) {
+            // Qualquer exceção ou erro (ex.: InternalError de um arquivo mapeado truncado durante
+            // a leitura) cancelaria, sem aviso, as próximas execuções do agendador
+            System.err.println("❌ Erro ao verificar a pasta de dados: " + e);
+        }
+    }
+
+    private void notificarIngestao(Ingestao ingestao) {
+        for (Consumer<Ingestao> ouvinte : ouvintesIngestao) {
+            ouvinte.accept(ingestao);
+        }
+    }
+
+    private void esvaziar(Shard shard) {
+        registrosCarregados.addAndGet(-shard.registros.size());
+        bytesEstimados.addAndGet(-shard.bytes);
+        shard.registros = null;
+        shard.bytes = 0;
+    }
+
+    /** SHA-256 (truncado) de chave, tamanho e data de modificação de cada shard do catálogo. */
+    private synchronized void atualizarVersao() {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (Shard s : catalogo.values()) {
+                sha.update((s.getChave() + ":" + s.tamanhoArquivo + ":" + s.modificadoEm + ";")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            versao = HexFormat.of().formatHex(sha.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private synchronized void tocar(Shard shard) {
+        carregados.get(shard.getChave()); // atualiza a ordem de acesso (LRU)
+    }
+
+    private synchronized int quantidadeCarregados(Map<String, Shard> mapa) {
+        return mapa.size();
+    }
+
+    /**
+     * Despeja shards menos usados até caber {@code bytesNovos} no limite configurado.
+     * Se o heap que sobreviveu ao último GC passar de 85% do máximo, libera também o
+     * equivalente ao shard novo. Consultas em andamento mantêm suas próprias referências
+     * às listas, então despejar não as afeta.
+     */
+    private synchronized void liberarEspaco(long bytesNovos) {
+        long liberarPorPressao = heapQuaseCheio() ? bytesNovos : 0;
+        Iterator<Shard> lru = carregados.values().iterator();
+        while (lru.hasNext() && (bytesEstimados.get() + bytesNovos > memoriaMaxima || liberarPorPressao > 0)) {
+            Shard vitima = lru.next();
+            liberarPorPressao -= vitima.bytes;
+            lru.remove();
+            esvaziar(vitima);
+            despejos.increment();
+            System.out.println("♻️ Shard " + vitima.getChave() + " removido da memória");
+        }
+    }
+
+    /** Usa o uso após a última coleta (collection usage) para não confundir lixo com pressão real. */
+    private boolean heapQuaseCheio() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) continue;
+            MemoryUsage uso = pool.getCollectionUsage();
+            if (uso != null && uso.getMax() > 0 && uso.getUsed() > uso.getMax() * FRACAO_MAXIMA_HEAP) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Estimativa do tamanho em heap dos registros. Ids e data são primitivos no próprio
+     * objeto; país, estado, município e bioma são instâncias canônicas compartilhadas por
+     * todos os shards (DicionarioBytes) e não entram na conta.
+     */
+    private long estimarBytes(List<DadosDesmatamento> lista) {
+        return lista.size() * BYTES_POR_REGISTRO;
+    }
+}
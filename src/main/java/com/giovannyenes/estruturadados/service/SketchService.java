@@ -0,0 +1,253 @@
+package com.giovannyenes.estruturadados.service;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+
+import com.giovannyenes.estruturadados.model.DadosDesmatamento;
+import com.giovannyenes.estruturadados.sketch.DDSketch;
+import com.giovannyenes.estruturadados.sketch.HyperLogLog;
+import com.giovannyenes.estruturadados.sketch.SpaceSaving;
+
+/**
+ * Modo aproximado das análises, baseado em sketches mantidos durante a carga.
+ *
+ * 🧠 Cada shard (UF, ano) guarda, a cada leitura do arquivo:
+ * - HyperLogLog → municípios distintos e foco_ids distintos
+ * - Space-Saving → ranking dos municípios com mais focos
+ * - DDSketch → distribuição da quantidade de focos por dia
+ *
+ * As consultas mesclam os sketches dos shards selecionados, então o custo depende
+ * do número de shards e não do número de linhas. Os sketches continuam em memória
+ * mesmo depois que o shard é despejado (a consulta aproximada não relê o shard).
+ *
+ * 🔸 Modo cluster: cada worker devolve os sketches dos seus shards em /api/interno/sketch
+ *    (registradores do HLL, contadores do Space-Saving e baldes do DDSketch), mesclados
+ *    aqui com os locais. Worker ignorado com tolerar-falhas → X-Resposta-Parcial
+ */
+@Service
+public class SketchService {
+
+    private static final int PRECISAO_HLL = 14;          // 16384 registradores → erro padrão ≈ 0,81%
+    private static final int CAPACIDADE_RANKING = 2000;   // contadores do Space-Saving por fatia
+    private static final double ALFA_QUANTIS = 0.01;      // erro relativo de 1% nos quantis
+
+    /**
+     * Sketches de uma instância no formato enviado entre coordenador e workers.
+     * Os registradores do HLL viajam em Base64 (16 KB cada com p = 14).
+     */
+    public record Parcial(byte[] municipios, byte[] focos,
+                          int capacidadeRanking, List<SpaceSaving.Item> ranking,
+                          double alfa, Map<Integer, Long> baldesPorDia, long zerosPorDia) {}
+
+    private static final class Fatia {
+        final HyperLogLog municipios;
+        final HyperLogLog focos;
+        final SpaceSaving ranking;
+        final DDSketch focosPorDia;
+
+        Fatia() {
+            this(new HyperLogLog(PRECISAO_HLL), new HyperLogLog(PRECISAO_HLL),
+                    new SpaceSaving(CAPACIDADE_RANKING), new DDSketch(ALFA_QUANTIS));
+        }
+
+        Fatia(HyperLogLog municipios, HyperLogLog focos, SpaceSaving ranking, DDSketch focosPorDia) {
+            this.municipios = municipios;
+            this.focos = focos;
+            this.ranking = ranking;
+            this.focosPorDia = focosPorDia;
+        }
+
+        static Fatia de(Parcial p) {
+            return new Fatia(HyperLogLog.deRegistradores(p.municipios()), HyperLogLog.deRegistradores(p.focos()),
+                    SpaceSaving.deItens(p.capacidadeRanking(), p.ranking()),
+                    DDSketch.deBaldes(p.alfa(), p.baldesPorDia(), p.zerosPorDia()));
+        }
+
+        Parcial exportar() {
+            return new Parcial(municipios.registradores(), focos.registradores(),
+                    ranking.capacidade(), ranking.top(ranking.capacidade()),
+                    focosPorDia.alfa(), focosPorDia.baldes(), focosPorDia.zeros());
+        }
+
+        void mesclar(Fatia outra) {
+            municipios.mesclar(outra.municipios);
+            focos.mesclar(outra.focos);
+            ranking.mesclar(outra.ranking);
+            focosPorDia.mesclar(outra.focosPorDia);
+        }
+    }
+
+    private final ShardService shardService;
+    private final ClusterService clusterService;
+    private final Map<String, Fatia> fatiasPorShard = new HashMap<>();
+
+    public SketchService(ShardService shardService, ClusterService clusterService) {
+        this.shardService = shardService;
+        this.clusterService = clusterService;
+        shardService.aoCarregar(this::registrar);
+    }
+
+    /**
+     * Cria os sketches de cada lista lida do disco. O ShardService chama antes de publicar a
+     * lista (e de mudar a versão dos dados, se o arquivo mudou): os sketches nunca ficam
+     * atrás dos registros. Recargas após despejo refazem os mesmos sketches.
+     */
+    public void registrar(ShardService.Shard shard, List<DadosDesmatamento> registros) {
+        Fatia fatia = construir(registros);
+        synchronized (this) {
+            fatiasPorShard.put(shard.getChave(), fatia);
+        }
+    }
+
+    /**
+     * Sketches de uma lista de registros.
+     *
+     * 🔸 A distribuição diária considera os dias presentes no shard; os arquivos do INPE são anuais.
+     */
+    private Fatia construir(List<DadosDesmatamento> registros) {
+        Fatia fatia = new Fatia();
+        Map<Integer, Long> porDia = new HashMap<>();
+        for (DadosDesmatamento d : registros) {
+            String municipio = d.getMunicipio() != null && !d.getMunicipio().isBlank() ? d.getMunicipio() : null;
+
+            fatia.municipios.adicionar(municipio);
+            fatia.focos.adicionar(d.getFocoIdAlto(), d.getFocoIdBaixo());
+            fatia.ranking.adicionar(municipio);
+            porDia.merge(d.getDia(), 1L, Long::sum);
+        }
+        for (long quantidade : porDia.values()) {
+            fatia.focosPorDia.adicionar(quantidade);
+        }
+        return fatia;
+    }
+
+    /** Estimativa de municípios distintos (filtros opcionais de estado e ano). */
+    public Map<String, Object> municipiosDistintos(String estado, Integer ano) {
+        Fatia fatia = fatia(estado, ano);
+        return fatia == null ? Map.of() : respostaCardinalidade(fatia.municipios);
+    }
+
+    /** Estimativa de foco_ids distintos (filtros opcionais de estado e ano). */
+    public Map<String, Object> focosDistintos(String estado, Integer ano) {
+        Fatia fatia = fatia(estado, ano);
+        return fatia == null ? Map.of() : respostaCardinalidade(fatia.focos);
+    }
+
+    /**
+     * Top N municípios pelo Space-Saving.
+     *
+     * 🔸 "estimativa" é um limite superior; "minimoGarantido" = estimativa - erro
+     */
+    public Map<String, Map<String, Long>> rankingMunicipios(int top, String estado) {
+        Map<String, Map<String, Long>> resultado = new LinkedHashMap<>();
+        Fatia fatia = fatia(estado, null);
+        if (fatia == null) return resultado;
+
+        for (SpaceSaving.Item item : fatia.ranking.top(top)) {
+            Map<String, Long> detalhes = new LinkedHashMap<>();
+            detalhes.put("estimativa", item.contagem());
+            detalhes.put("minimoGarantido", item.contagem() - item.erro());
+            resultado.put(item.chave(), detalhes);
+        }
+        return resultado;
+    }
+
+    /**
+     * Quantis da quantidade de focos por dia (apenas dias com pelo menos um foco).
+     *
+     * 🔸 Com vários estados, cada valor é a contagem de um dia em um estado
+     */
+    public Map<String, Object> distribuicaoDiaria(String estado, Integer ano) {
+        Fatia fatia = fatia(estado, ano);
+        if (fatia == null || fatia.focosPorDia.total() == 0) return Map.of();
+        DDSketch sketch = fatia.focosPorDia;
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("modo", "aproximado");
+        resposta.put("dias", sketch.total());
+        resposta.put("p50", Math.round(sketch.quantil(0.50)));
+        resposta.put("p90", Math.round(sketch.quantil(0.90)));
+        resposta.put("p99", Math.round(sketch.quantil(0.99)));
+        resposta.put("erroRelativoMaximo", String.format("%.2f%%", sketch.alfa() * 100));
+        return resposta;
+    }
+
+    /** Sketches mesclados dos shards locais (usado pelo coordenador), ou null sem shards. */
+    public Parcial parcialLocal(String estado, Integer ano) {
+        Fatia fatia = fatiaLocal(estado, ano);
+        return fatia == null ? null : fatia.exportar();
+    }
+
+    // ============================================================
+    // 🔹 MÉTODOS AUXILIARES
+    // ============================================================
+
+    /**
+     * Sketches locais + os dos workers (modo cluster), ou null se nenhuma instância tem shards.
+     * Os pedidos aos workers saem antes da mesclagem local.
+     */
+    private Fatia fatia(String estado, Integer ano) {
+        Supplier<List<Parcial>> remotos = clusterService.sketches(estado, ano);
+        Fatia resultado = fatiaLocal(estado, ano);
+        for (Parcial parcial : remotos.get()) {
+            if (resultado == null) resultado = new Fatia();
+            resultado.mesclar(Fatia.de(parcial));
+        }
+        return resultado;
+    }
+
+    /**
+     * Mescla os sketches dos shards selecionados numa fatia nova.
+     * Só os shards que ainda não têm sketch são lidos (antes, fora do lock, para que a
+     * carga, que chama {@link #registrar}, não espere por esta consulta). Shards despejados
+     * cujo sketch já existe não voltam para a memória.
+     */
+    private Fatia fatiaLocal(String estado, Integer ano) {
+        List<ShardService.Shard> shards = shardService.selecionar(estado, ano);
+        if (shards.isEmpty()) return null;
+
+        List<ShardService.Shard> semSketch = new ArrayList<>();
+        synchronized (this) {
+            for (ShardService.Shard shard : shards) {
+                if (!fatiasPorShard.containsKey(shard.getChave())) semSketch.add(shard);
+            }
+        }
+        // A carga chama registrar; se o shard já estava em memória antes deste serviço existir, constrói aqui
+        semSketch.parallelStream().forEach(shard -> {
+            List<DadosDesmatamento> registros = shardService.registros(shard);
+            synchronized (this) {
+                if (fatiasPorShard.containsKey(shard.getChave())) return;
+            }
+            Fatia fatia = construir(registros);
+            synchronized (this) {
+                fatiasPorShard.putIfAbsent(shard.getChave(), fatia);
+            }
+        });
+
+        synchronized (this) {
+            Fatia resultado = new Fatia();
+            for (ShardService.Shard shard : shards) {
+                Fatia f = fatiasPorShard.get(shard.getChave());
+                if (f != null) resultado.mesclar(f);
+            }
+            return resultado;
+        }
+    }
+
+    private Map<String, Object> respostaCardinalidade(HyperLogLog hll) {
+        long estimativa = hll.estimar();
+        double erro = hll.erroPadraoRelativo();
+
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("modo", "aproximado");
+        resposta.put("estimativa", estimativa);
+        resposta.put("erroPadraoRelativo", String.format("%.2f%%", erro * 100));
+        // intervalo de ~95% de confiança (±2 erros padrão)
+        resposta.put("intervalo95", List.of(
+                Math.max(0, Math.round(estimativa * (1 - 2 * erro))),
+                Math.round(estimativa * (1 + 2 * erro))));
+        return resposta;
+    }
+}
@@ -0,0 +1,81 @@
+package com.giovannyenes.estruturadados.sketch;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sketch de quantis com erro relativo garantido para valores positivos.
+ *
+ * 🔸 Algoritmo: DDSketch (Masson et al.) — baldes logarítmicos de razão gamma = (1 + α) / (1 - α)
+ * 🔸 Garantia: todo quantil retornado está a no máximo α (relativo) do valor real
+ * 🔸 Memória: O(log(max/min) / α) baldes, independente da quantidade de valores
+ * 🔸 Mesclável: basta somar as contagens balde a balde
+ */
+public class DDSketch {
+
+    private final double alfa;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> baldes = new TreeMap<>();
+    private long zeros;
+    private long total;
+
+    public DDSketch(double alfa) {
+        if (alfa <= 0 || alfa >= 1) throw new IllegalArgumentException("α deve estar entre 0 e 1: " + alfa);
+        this.alfa = alfa;
+        this.logGamma = Math.log((1 + alfa) / (1 - alfa));
+    }
+
+    /** Recria um sketch a partir dos baldes e zeros exportados por {@link #baldes()} e {@link #zeros()}. */
+    public static DDSketch deBaldes(double alfa, Map<Integer, Long> baldes, long zeros) {
+        DDSketch sketch = new DDSketch(alfa);
+        sketch.baldes.putAll(baldes);
+        sketch.zeros = zeros;
+        sketch.total = zeros + baldes.values().stream().mapToLong(Long::longValue).sum();
+        return sketch;
+    }
+
+    /** Adiciona um valor (valores ≤ 0 são contados como zero). */
+    public void adicionar(double valor) {
+        if (valor <= 0) {
+            zeros++;
+        } else {
+            int indice = (int) Math.ceil(Math.log(valor) / logGamma);
+            baldes.merge(indice, 1L, Long::sum);
+        }
+        total++;
+    }
+
+    public void mesclar(DDSketch outro) {
+        if (outro.alfa != alfa) throw new IllegalArgumentException("α diferentes: " + alfa + " e " + outro.alfa);
+        for (Map.Entry<Integer, Long> e : outro.baldes.entrySet()) {
+            baldes.merge(e.getKey(), e.getValue(), Long::sum);
+        }
+        zeros += outro.zeros;
+        total += outro.total;
+    }
+
+    /** Valor aproximado do quantil q (0 a 1), ou NaN se o sketch estiver vazio. */
+    public double quantil(double q) {
+        if (total == 0) return Double.NaN;
+        long rank = (long) (q * (total - 1));
+        if (rank < zeros) return 0;
+
+        long acumulado = zeros;
+        for (Map.Entry<Integer, Long> e : baldes.entrySet()) {
+            acumulado += e.getValue();
+            if (acumulado > rank) {
+                return 2 * Math.exp(e.getKey() * logGamma) / (Math.exp(logGamma) + 1);
+            }
+        }
+        return 2 * Math.exp(baldes.lastKey() * logGamma) / (Math.exp(logGamma) + 1);
+    }
+
+    public long total() { return total; }
+
+    /** Contagem por índice de balde (cópia). */
+    public Map<Integer, Long> baldes() { return new TreeMap<>(baldes); }
+
+    public long zeros() { return zeros; }
+
+    public double alfa() { return alfa; }
+}
@@ -0,0 +1,38 @@
+package com.giovannyenes.estruturadados.sketch;
+
+/**
+ * Hash de 64 bits para os sketches.
+ *
+ * 🔸 FNV-1a sobre os caracteres + finalizador do MurmurHash3 (fmix64)
+ * 🔸 String.hashCode() tem apenas 32 bits e colide demais em dezenas de milhões de IDs
+ */
+final class Hashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {}
+
+    static long hash64(String valor) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return fmix64(h);
+    }
+
+    /** Valor de 128 bits (ex.: UUID) sem passar por String. */
+    static long hash64(long alto, long baixo) {
+        return fmix64(alto ^ fmix64(baixo));
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
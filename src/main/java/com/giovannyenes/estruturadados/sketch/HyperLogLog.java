@@ -0,0 +1,96 @@
+package com.giovannyenes.estruturadados.sketch;
+
+/**
+ * Estimador de cardinalidade (quantidade de valores distintos).
+ *
+ * 🔸 Algoritmo: HyperLogLog (Flajolet et al.) com correção de linear counting
+ * 🔸 Memória: 2^p registradores de 1 byte, independente do número de linhas
+ * 🔸 Erro padrão relativo: 1.04 / sqrt(2^p)
+ * 🔸 Mesclável: o máximo registrador a registrador equivale a ter visto as duas entradas
+ */
+public class HyperLogLog {
+
+    private final int p;
+    private final int m;
+    private final byte[] registradores;
+
+    public HyperLogLog(int p) {
+        if (p < 4 || p > 18) throw new IllegalArgumentException("Precisão deve estar entre 4 e 18: " + p);
+        this.p = p;
+        this.m = 1 << p;
+        this.registradores = new byte[m];
+    }
+
+    /** Recria um sketch a partir dos registradores exportados por {@link #registradores()}. */
+    public static HyperLogLog deRegistradores(byte[] registradores) {
+        int p = Integer.numberOfTrailingZeros(registradores.length);
+        if (registradores.length != 1 << p) {
+            throw new IllegalArgumentException("Quantidade de registradores não é potência de 2: " + registradores.length);
+        }
+        HyperLogLog hll = new HyperLogLog(p);
+        System.arraycopy(registradores, 0, hll.registradores, 0, hll.m);
+        return hll;
+    }
+
+    /** Adiciona um valor ao conjunto. Valores nulos são ignorados. */
+    public void adicionar(String valor) {
+        if (valor == null) return;
+        registrar(Hashing.hash64(valor));
+    }
+
+    /** Adiciona um valor de 128 bits (ex.: foco_id UUID) sem criar a String. */
+    public void adicionar(long alto, long baixo) {
+        registrar(Hashing.hash64(alto, baixo));
+    }
+
+    private void registrar(long hash) {
+        int indice = (int) (hash >>> (64 - p));
+        // posição do primeiro bit 1 nos bits restantes (1-based)
+        int rank = Long.numberOfLeadingZeros((hash << p) | (1L << (p - 1))) + 1;
+        if (rank > registradores[indice]) registradores[indice] = (byte) rank;
+    }
+
+    /** Incorpora outro sketch de mesma precisão neste. */
+    public void mesclar(HyperLogLog outro) {
+        if (outro.p != p) throw new IllegalArgumentException("Precisões diferentes: " + p + " e " + outro.p);
+        for (int i = 0; i < m; i++) {
+            if (outro.registradores[i] > registradores[i]) registradores[i] = outro.registradores[i];
+        }
+    }
+
+    /** Cópia dos registradores (para enviar o sketch a outra instância). */
+    public byte[] registradores() {
+        return registradores.clone();
+    }
+
+    /** Estimativa da quantidade de valores distintos. */
+    public long estimar() {
+        double soma = 0;
+        int zeros = 0;
+        for (byte r : registradores) {
+            soma += 1.0 / (1L << r);
+            if (r == 0) zeros++;
+        }
+        double estimativa = alfa() * m * m / soma;
+
+        // Correção para cardinalidades pequenas (linear counting)
+        if (estimativa <= 2.5 * m && zeros > 0) {
+            estimativa = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimativa);
+    }
+
+    /** Erro padrão relativo teórico (ex.: 0.0081 = 0,81%). */
+    public double erroPadraoRelativo() {
+        return 1.04 / Math.sqrt(m);
+    }
+
+    private double alfa() {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.giovannyenes.estruturadados.sketch;
+
+import java.util.*;
+
+/**
+ * Contador aproximado dos itens mais frequentes (heavy hitters).
+ *
+ * 🔸 Algoritmo: Space-Saving (Metwally et al.)
+ * 🔸 Memória: no máximo {@code capacidade} contadores
+ * 🔸 Garantia: cada contagem é um limite superior e excede a real em no máximo {@code erro};
+ *    todo item com frequência real > n / capacidade está entre os monitorados
+ * 🔸 Enquanto existirem menos itens distintos que a capacidade, as contagens são exatas
+ */
+public class SpaceSaving {
+
+    /** Item monitorado: contagem estimada (limite superior) e erro máximo dessa contagem. */
+    public record Item(String chave, long contagem, long erro) {}
+
+    private static final class Contador {
+        final String chave;
+        long contagem;
+        long erro;
+
+        Contador(String chave, long contagem, long erro) {
+            this.chave = chave;
+            this.contagem = contagem;
+            this.erro = erro;
+        }
+    }
+
+    private final int capacidade;
+    private final Map<String, Contador> contadores = new HashMap<>();
+    // Heap "preguiçoso": guarda a contagem no momento da inserção. Como contagens só crescem,
+    // uma entrada desatualizada é reinserida com o valor atual ao chegar ao topo.
+    private record Entrada(long contagem, Contador contador) {}
+    private final PriorityQueue<Entrada> heap = new PriorityQueue<>(Comparator.comparingLong(Entrada::contagem));
+
+    public SpaceSaving(int capacidade) {
+        if (capacidade < 1) throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+        this.capacidade = capacidade;
+    }
+
+    /** Recria um sketch a partir dos itens exportados por {@link #top(int)} com k = capacidade. */
+    public static SpaceSaving deItens(int capacidade, List<Item> itens) {
+        if (itens.size() > capacidade) {
+            throw new IllegalArgumentException("Mais itens (" + itens.size() + ") que a capacidade " + capacidade);
+        }
+        SpaceSaving ss = new SpaceSaving(capacidade);
+        for (Item item : itens) ss.inserir(new Contador(item.chave(), item.contagem(), item.erro()));
+        return ss;
+    }
+
+    public void adicionar(String chave) {
+        adicionar(chave, 1);
+    }
+
+    public void adicionar(String chave, long quantidade) {
+        if (chave == null) return;
+        Contador c = contadores.get(chave);
+        if (c != null) {
+            c.contagem += quantidade;
+            return;
+        }
+        if (contadores.size() < capacidade) {
+            inserir(new Contador(chave, quantidade, 0));
+            return;
+        }
+        // Substitui o menor contador: o novo item herda a contagem dele como erro
+        Contador menor = removerMenor();
+        inserir(new Contador(chave, menor.contagem + quantidade, menor.contagem));
+    }
+
+    /** Incorpora outro sketch (mescla de Agarwal et al.), mantendo os {@code capacidade} maiores. */
+    public void mesclar(SpaceSaving outro) {
+        long minEste = minimo();
+        long minOutro = outro.minimo();
+        Map<String, Contador> combinados = new HashMap<>();
+
+        for (Contador c : contadores.values()) {
+            Contador o = outro.contadores.get(c.chave);
+            long contagem = c.contagem + (o != null ? o.contagem : minOutro);
+            long erro = c.erro + (o != null ? o.erro : minOutro);
+            combinados.put(c.chave, new Contador(c.chave, contagem, erro));
+        }
+        for (Contador o : outro.contadores.values()) {
+            if (combinados.containsKey(o.chave)) continue;
+            combinados.put(o.chave, new Contador(o.chave, o.contagem + minEste, o.erro + minEste));
+        }
+
+        List<Contador> ordenados = new ArrayList<>(combinados.values());
+        ordenados.sort((x, y) -> Long.compare(y.contagem, x.contagem));
+        contadores.clear();
+        heap.clear();
+        for (int i = 0; i < Math.min(capacidade, ordenados.size()); i++) {
+            inserir(ordenados.get(i));
+        }
+    }
+
+    /** Os {@code k} itens com maior contagem estimada, em ordem decrescente. */
+    public List<Item> top(int k) {
+        List<Contador> ordenados = new ArrayList<>(contadores.values());
+        ordenados.sort((x, y) -> Long.compare(y.contagem, x.contagem));
+        List<Item> resultado = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, ordenados.size()); i++) {
+            Contador c = ordenados.get(i);
+            resultado.add(new Item(c.chave, c.contagem, c.erro));
+        }
+        return resultado;
+    }
+
+    public int capacidade() { return capacidade; }
+
+    /** Menor contagem monitorada (0 se ainda há espaço): limite para itens não monitorados. */
+    public long minimo() {
+        if (contadores.size() < capacidade) return 0;
+        Contador menor = removerMenor();
+        inserir(menor);
+        return menor.contagem;
+    }
+
+    private void inserir(Contador c) {
+        contadores.put(c.chave, c);
+        heap.add(new Entrada(c.contagem, c));
+    }
+
+    private Contador removerMenor() {
+        while (true) {
+            Entrada topo = heap.poll();
+            Contador c = topo.contador();
+            if (contadores.get(c.chave) != c) continue;          // entrada de contador já substituído
+            if (topo.contagem() != c.contagem) {                 // entrada desatualizada
+                heap.add(new Entrada(c.contagem, c));
+                continue;
+            }
+            contadores.remove(c.chave);
+            return c;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.giovannyenes.estruturadados.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
+
+import com.giovannyenes.estruturadados.service.ClusterService;
+import com.giovannyenes.estruturadados.service.ShardService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+
+class CacheRespostasFilterTest {
+
+    private static final int MIB = 1024 * 1024;
+
+    /** Responde "tamanho" bytes de JSON e conta quantas vezes cada caminho chegou ao controller. */
+    @RestController
+    static class ControllerFalso {
+        final Map<String, AtomicInteger> chamadas = new ConcurrentHashMap<>();
+
+        @GetMapping(value = "/api/analise/{nome}", produces = MediaType.APPLICATION_JSON_VALUE)
+        String responder(@PathVariable String nome, @RequestParam(defaultValue = "1000") int tamanho,
+                         @RequestParam(defaultValue = "false") boolean parcial,
+                         @RequestParam(defaultValue = "0") long demoraMs, HttpServletResponse response)
+                throws InterruptedException {
+            int n = chamadas.computeIfAbsent(nome, k -> new AtomicInteger()).incrementAndGet();
+            Thread.sleep(demoraMs);
+            if (parcial) response.setHeader(ClusterService.CABECALHO_PARCIAL, "true");
+            String prefixo = "{\"nome\":\"" + nome + "\",\"chamada\":" + n + ",\"dados\":\"";
+            return prefixo + "x".repeat(Math.max(0, tamanho - prefixo.length() - 2)) + "\"}";
+        }
+
+        int chamadas(String nome) {
+            AtomicInteger n = chamadas.get(nome);
+            return n == null ? 0 : n.get();
+        }
+    }
+
+    private final ShardService shardService = mock(ShardService.class);
+    private final ClusterService clusterService = new ClusterService(new SimpleMeterRegistry(), List.of(), 1000, false, 1000);
+    private SimpleMeterRegistry registro;
+    private ControllerFalso controller;
+
+    @BeforeEach
+    void preparar() {
+        when(shardService.getVersao()).thenReturn("v1");
+        registro = new SimpleMeterRegistry();
+        controller = new ControllerFalso();
+    }
+
+    private MockMvc mvc(long memoriaMaximaMb, int gzipMinimo) {
+        CacheRespostasFilter filtro = new CacheRespostasFilter(shardService, clusterService,
+                new HandlerMappingIntrospector(), registro, true, memoriaMaximaMb, gzipMinimo, 0);
+        return MockMvcBuilders.standaloneSetup(controller).addFilters(filtro).build();
+    }
+
+    private MockHttpServletResponse executar(MockMvc mvc, MockHttpServletRequestBuilder pedido) throws Exception {
+        return mvc.perform(pedido).andReturn().getResponse();
+    }
+
+    @Test
+    void respondeNaoModificadoQuandoOEtagCoincide() throws Exception {
+        MockMvc mvc = mvc(32, 512);
+
+        MockHttpServletResponse primeira = executar(mvc, get("/api/analise/anos"));
+        String etag = primeira.getHeader("ETag");
+        assertEquals(200, primeira.getStatus());
+        assertTrue(etag.startsWith("\""));
+
+        MockHttpServletResponse revalidada = executar(mvc, get("/api/analise/anos").header("If-None-Match", etag));
+        assertEquals(304, revalidada.getStatus());
+        assertEquals(0, revalidada.getContentAsByteArray().length);
+        assertEquals(etag, revalidada.getHeader("ETag"));
+
+        // Comparação fraca: W/ e listas também valem
+        assertEquals(304, executar(mvc, get("/api/analise/anos")
+                .header("If-None-Match", "\"outro\", W/" + etag)).getStatus());
+        assertEquals(200, executar(mvc, get("/api/analise/anos").header("If-None-Match", "\"outro\"")).getStatus());
+
+        assertEquals(1, controller.chamadas("anos"));
+        assertEquals(1.0, registro.get("cache.respostas").tag("resultado", "falta").counter().count());
+        assertEquals(2.0, registro.get("cache.respostas").tag("resultado", "nao-modificado").counter().count());
+    }
+
+    @Test
+    void gzipSoQuandoOClienteAceita() throws Exception {
+        MockMvc mvc = mvc(32, 512);
+        byte[] json = executar(mvc, get("/api/analise/ranking").param("tamanho", "4000")).getContentAsByteArray();
+
+        MockHttpServletResponse comGzip = executar(mvc, get("/api/analise/ranking").param("tamanho", "4000")
+                .header("Accept-Encoding", "br, gzip"));
+        assertEquals("gzip", comGzip.getHeader("Content-Encoding"));
+        assertTrue(comGzip.getHeader("ETag").endsWith("-gz\""));
+        assertTrue(comGzip.getContentAsByteArray().length < json.length);
+        try (GZIPInputStream gz = new GZIPInputStream(new ByteArrayInputStream(comGzip.getContentAsByteArray()))) {
+            assertArrayEquals(json, gz.readAllBytes());
+        }
+
+        for (String recusa : List.of("gzip;q=0", "br, gzip; q=0.0", "identity")) {
+            MockHttpServletResponse semGzip = executar(mvc, get("/api/analise/ranking").param("tamanho", "4000")
+                    .header("Accept-Encoding", recusa));
+            assertNull(semGzip.getHeader("Content-Encoding"), recusa);
+            assertArrayEquals(json, semGzip.getContentAsByteArray(), recusa);
+            assertNotEquals(comGzip.getHeader("ETag"), semGzip.getHeader("ETag"), recusa);
+        }
+        assertEquals(1, controller.chamadas("ranking"));
+    }
+
+    @Test
+    void lruRespeitaOLimiteDeBytes() throws Exception {
+        // Sem gzip: cada resposta ocupa exatamente o tamanho do JSON (400 KB; cabem duas em 1 MiB)
+        MockMvc mvc = mvc(1, Integer.MAX_VALUE);
+        String tamanho = String.valueOf(400 * 1024);
+
+        executar(mvc, get("/api/analise/a").param("tamanho", tamanho));
+        executar(mvc, get("/api/analise/b").param("tamanho", tamanho));
+        executar(mvc, get("/api/analise/a").param("tamanho", tamanho));   // "a" passa a ser o mais recente
+        executar(mvc, get("/api/analise/c").param("tamanho", tamanho));   // despeja "b"
+        assertTrue(registro.get("cache.respostas.memoria").gauge().value() <= MIB);
+
+        executar(mvc, get("/api/analise/a").param("tamanho", tamanho));
+        executar(mvc, get("/api/analise/b").param("tamanho", tamanho));
+        assertEquals(1, controller.chamadas("a"));
+        assertEquals(2, controller.chamadas("b"));
+        assertEquals(1, controller.chamadas("c"));
+
+        // Maior que o limite inteiro: é servida, mas nunca guardada
+        executar(mvc, get("/api/analise/grande").param("tamanho", String.valueOf(2 * MIB)));
+        executar(mvc, get("/api/analise/grande").param("tamanho", String.valueOf(2 * MIB)));
+        assertEquals(2, controller.chamadas("grande"));
+        assertTrue(registro.get("cache.respostas.memoria").gauge().value() <= MIB);
+    }
+
+    @Test
+    void novaVersaoDosDadosDescartaOCache() throws Exception {
+        MockMvc mvc = mvc(32, 512);
+
+        String etag = executar(mvc, get("/api/analise/biomas")).getHeader("ETag");
+        assertEquals(304, executar(mvc, get("/api/analise/biomas").header("If-None-Match", etag)).getStatus());
+
+        when(shardService.getVersao()).thenReturn("v2");
+        MockHttpServletResponse depois = executar(mvc, get("/api/analise/biomas").header("If-None-Match", etag));
+        assertEquals(200, depois.getStatus());
+        assertTrue(depois.getContentAsString(StandardCharsets.UTF_8).contains("\"chamada\":2"));
+        assertNotEquals(etag, depois.getHeader("ETag"));
+        assertEquals(2, controller.chamadas("biomas"));
+
+        executar(mvc, get("/api/analise/biomas"));
+        assertEquals(2, controller.chamadas("biomas"));
+    }
+
+    @Test
+    void respostaLentaDaVersaoAnteriorNaoVoltaOCache() throws Exception {
+        MockMvc mvc = mvc(32, 512);
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> lenta = threads.submit(
+                    () -> executar(mvc, get("/api/analise/lento").param("demoraMs", "800")));
+            while (controller.chamadas("lento") == 0) Thread.sleep(5);
+
+            // Os dados mudam enquanto a requisição da v1 ainda está no controller
+            when(shardService.getVersao()).thenReturn("v2");
+            executar(mvc, get("/api/analise/biomas"));
+            assertEquals("v1", lenta.get().getHeader(CacheRespostasFilter.CABECALHO_VERSAO));
+
+            // A resposta da v1 foi servida, mas não descartou o cache da v2
+            MockHttpServletResponse depois = executar(mvc, get("/api/analise/biomas"));
+            assertEquals("v2", depois.getHeader(CacheRespostasFilter.CABECALHO_VERSAO));
+            assertEquals(1, controller.chamadas("biomas"));
+
+            executar(mvc, get("/api/analise/lento").param("demoraMs", "800"));
+            assertEquals(2, controller.chamadas("lento"));
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void requisicoesSimultaneasGeramAMesmaRespostaUmaVez() throws Exception {
+        MockMvc mvc = mvc(32, 512);
+        int clientes = 8;
+        ExecutorService threads = Executors.newFixedThreadPool(clientes);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<MockHttpServletResponse>> respostas = new ArrayList<>();
+            for (int i = 0; i < clientes; i++) {
+                respostas.add(threads.submit(() -> {
+                    largada.await();
+                    return executar(mvc, get("/api/analise/lento").param("demoraMs", "500"));
+                }));
+            }
+            largada.countDown();
+
+            String corpo = null;
+            for (Future<MockHttpServletResponse> r : respostas) {
+                MockHttpServletResponse resposta = r.get();
+                assertEquals(200, resposta.getStatus());
+                if (corpo == null) corpo = resposta.getContentAsString();
+                assertEquals(corpo, resposta.getContentAsString());
+            }
+            assertEquals(1, controller.chamadas("lento"));
+            assertEquals(clientes - 1.0, registro.get("cache.respostas.agrupadas").counter().count());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void respostaParcialDoClusterNaoEntraNoCache() throws Exception {
+        MockMvc mvc = mvc(32, 512);
+
+        executar(mvc, get("/api/analise/total").param("parcial", "true"));
+        MockHttpServletResponse segunda = executar(mvc, get("/api/analise/total").param("parcial", "true"));
+
+        assertEquals("true", segunda.getHeader(ClusterService.CABECALHO_PARCIAL));
+        assertEquals(2, controller.chamadas("total"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.giovannyenes.estruturadados.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.giovannyenes.estruturadados.model.DadosDesmatamento;
+
+class FocosCsvParserTest {
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void converteLinhasNoFormatoDoInpe() throws Exception {
+        Path arquivo = escrever(
+                "id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\n",
+                " 9988882 ,5e864492-5abb-11e8-911c-28924ad12c5c,  -17.612000 ,  -47.160000 ,2003-05-15 17:05:00,Brasil,MINAS GERAIS,UNAÍ,Cerrado\r\n",
+                " 9988878 ,5e86448f-5abb-11e8-911c-28924ad12c5c,  -0.015000 ,  46.3 ,2003-05-16,Brasil,MINAS GERAIS,UNAÍ,Mata Atlântica");
+
+        List<DadosDesmatamento> registros = new ArrayList<>();
+        List<String> fallback = new ArrayList<>();
+        long linhas = new FocosCsvParser().ler(arquivo, registros::add, fallback::add);
+
+        assertEquals(2, linhas);
+        assertEquals(0, fallback.size());
+
+        DadosDesmatamento primeiro = registros.get(0);
+        assertEquals(9988882L, primeiro.getIdBdq());
+        assertEquals(UUID.fromString("5e864492-5abb-11e8-911c-28924ad12c5c"), primeiro.getFocoId());
+        assertEquals(Double.parseDouble("-17.612000"), primeiro.getLatitude());
+        assertEquals(Double.parseDouble("-47.160000"), primeiro.getLongitude());
+        assertEquals(LocalDate.of(2003, 5, 15), primeiro.getData());
+        assertEquals("UNAÍ", primeiro.getMunicipio());
+        assertEquals("Cerrado", primeiro.getBioma());
+
+        DadosDesmatamento segundo = registros.get(1);
+        assertEquals(Double.parseDouble("-0.015000"), segundo.getLatitude());
+        assertEquals(46.3, segundo.getLongitude());
+        assertEquals(LocalDate.of(2003, 5, 16), segundo.getData());
+        assertEquals("Mata Atlântica", segundo.getBioma());
+        assertSame(primeiro.getMunicipio(), segundo.getMunicipio());
+
+        // Outro parser (carga em paralelo de outro arquivo) devolve a mesma instância
+        Path outro = pasta.resolve("outro.csv");
+        Files.writeString(outro, "id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\n"
+                + "1,5E86448F-5ABB-11E8-911C-28924AD12C5C,-17.5,-47.1,2004-02-29,Brasil,MINAS GERAIS,UNAÍ,Cerrado\n",
+                StandardCharsets.UTF_8);
+        List<DadosDesmatamento> deOutroArquivo = new ArrayList<>();
+        new FocosCsvParser().ler(outro, deOutroArquivo::add, fallback::add);
+        assertSame(primeiro.getMunicipio(), deOutroArquivo.get(0).getMunicipio());
+        assertSame(primeiro.getBioma(), deOutroArquivo.get(0).getBioma());
+        // UUID em maiúsculas e 29/02 de ano bissexto continuam no caminho rápido
+        assertEquals(UUID.fromString("5e86448f-5abb-11e8-911c-28924ad12c5c"), deOutroArquivo.get(0).getFocoId());
+        assertEquals(LocalDate.of(2004, 2, 29), deOutroArquivo.get(0).getData());
+    }
+
+    @Test
+    void diaEpochIgualAoDoLocalDate() throws Exception {
+        StringBuilder csv = new StringBuilder("id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\n");
+        List<LocalDate> datas = new ArrayList<>();
+        for (LocalDate d = LocalDate.of(1899, 12, 25); d.isBefore(LocalDate.of(2101, 1, 8)); d = d.plusDays(13)) {
+            datas.add(d);
+            csv.append("1,5e864492-5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,").append(d).append(",Brasil,MG,X,Cerrado\n");
+        }
+        Path arquivo = escrever(csv.toString());
+
+        List<DadosDesmatamento> registros = new ArrayList<>();
+        new FocosCsvParser().ler(arquivo, registros::add, linha -> { throw new AssertionError(linha); });
+
+        assertEquals(datas.size(), registros.size());
+        for (int i = 0; i < datas.size(); i++) {
+            assertEquals(datas.get(i).toEpochDay(), registros.get(i).getDia(), datas.get(i).toString());
+        }
+    }
+
+    @Test
+    void repassaLinhasForaDoPadraoParaOFallback() throws Exception {
+        Path arquivo = escrever(
+                "id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\n",
+                "1,a,\"-17,5\",-47.1,2003-05-15,Brasil,MG,X,Cerrado\n",
+                "2,b,-17.5,-47.1,15/05/2003,Brasil,MG,X,Cerrado\n",
+                "3,c,-17.5,-47.1\n",
+                "\n",
+                "4,d,1e3,-47.1,2003-05-15,Brasil,MG,X,Cerrado\n",
+                "5,5e864492-5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,2003-02-29,Brasil,MG,X,Cerrado\n",
+                "x6,5e864492-5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,2003-05-15,Brasil,MG,X,Cerrado\n",
+                "7,5e864492_5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,2003-05-15,Brasil,MG,X,Cerrado\n");
+
+        List<DadosDesmatamento> registros = new ArrayList<>();
+        List<String> fallback = new ArrayList<>();
+        long linhas = new FocosCsvParser().ler(arquivo, registros::add, fallback::add);
+
+        assertEquals(7, linhas);
+        assertEquals(0, registros.size());
+        assertEquals(List.of(
+                "1,a,\"-17,5\",-47.1,2003-05-15,Brasil,MG,X,Cerrado",
+                "2,b,-17.5,-47.1,15/05/2003,Brasil,MG,X,Cerrado",
+                "3,c,-17.5,-47.1",
+                "4,d,1e3,-47.1,2003-05-15,Brasil,MG,X,Cerrado",
+                "5,5e864492-5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,2003-02-29,Brasil,MG,X,Cerrado",
+                "x6,5e864492-5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,2003-05-15,Brasil,MG,X,Cerrado",
+                "7,5e864492_5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,2003-05-15,Brasil,MG,X,Cerrado"), fallback);
+    }
+
+    @Test
+    void linhasQueCruzamOLimiteDoBloco() throws Exception {
+        // ~4 MiB de linhas (várias cruzam o fim do bloco de 1 MiB) e uma linha de 3 MiB no meio
+        StringBuilder csv = new StringBuilder("id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\r\n");
+        int quantidade = 40_000;
+        for (int i = 0; i < quantidade; i++) {
+            if (i == quantidade / 2) csv.append("0,x,\"").append("y".repeat(3 << 20)).append("\"\r\n");
+            csv.append(i).append(",5e864492-5abb-11e8-911c-28924ad12c5c,-17.5,-47.1,2003-05-15 17:05:00,")
+                    .append("Brasil,MINAS GERAIS,MUNICÍPIO ").append(i % 800).append(",Cerrado\r\n");
+        }
+        Path arquivo = escrever(csv.toString());
+
+        List<DadosDesmatamento> registros = new ArrayList<>();
+        List<String> fallback = new ArrayList<>();
+        long linhas = new FocosCsvParser().ler(arquivo, registros::add, fallback::add);
+
+        assertEquals(quantidade + 1, linhas);
+        assertEquals(1, fallback.size());
+        assertEquals((3 << 20) + 6, fallback.get(0).length());
+        assertEquals(quantidade, registros.size());
+        for (int i = 0; i < quantidade; i++) {
+            assertEquals(i, registros.get(i).getIdBdq());
+            assertEquals("MUNICÍPIO " + (i % 800), registros.get(i).getMunicipio());
+        }
+    }
+
+    private Path escrever(String... linhas) throws Exception {
+        Path arquivo = pasta.resolve("focos.csv");
+        Files.writeString(arquivo, String.join("", linhas), StandardCharsets.UTF_8);
+        return arquivo;
+    }
+}
@@ -0,0 +1,60 @@
+package com.giovannyenes.estruturadados.ordenacao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class AlgoritmosOrdenacaoTest {
+
+    private static final List<AlgoritmoOrdenacao> ALGORITMOS = List.of(
+            new QuickSortTresVias(), new IntroSort(), new RadixSort(), new MergeSortParalelo(), new OrdenacaoJdk());
+
+    @Test
+    void ordenaVetoresNumericosInclusivePioresCasosDoQuickSortAntigo() {
+        Random aleatorio = new Random(42);
+        int n = 200_000;
+        long[] misturados = aleatorio.longs(n).toArray();
+        long[] crescentes = new long[n];
+        long[] decrescentes = new long[n];
+        long[] iguais = new long[n];
+        long[] poucosValores = new long[n];
+        for (int i = 0; i < n; i++) {
+            crescentes[i] = i;
+            decrescentes[i] = n - i;
+            iguais[i] = 7;
+            poucosValores[i] = aleatorio.nextInt(5) - 2;
+        }
+
+        for (long[] entrada : List.of(misturados, crescentes, decrescentes, iguais, poucosValores, new long[0], new long[]{3})) {
+            long[] esperado = entrada.clone();
+            Arrays.sort(esperado);
+            for (AlgoritmoOrdenacao a : ALGORITMOS) {
+                long[] v = entrada.clone();
+                a.ordenar(v);
+                assertArrayEquals(esperado, v, a.getNome());
+            }
+        }
+    }
+
+    @Test
+    void ordenaTextosNaOrdemNaturalDeString() {
+        Random aleatorio = new Random(7);
+        String[] municipios = {"UNAÍ", "UBERABA", "UBÁ", "UB", "", "ARAXÁ", "JOÃO PINHEIRO", "UNAÍ", "ÁGUA BOA", "Z"};
+        String[] entrada = new String[50_000];
+        for (int i = 0; i < entrada.length; i++) {
+            entrada[i] = municipios[aleatorio.nextInt(municipios.length)] + (i % 3 == 0 ? "" : i % 97);
+        }
+
+        String[] esperado = entrada.clone();
+        Arrays.sort(esperado);
+        for (AlgoritmoOrdenacao a : ALGORITMOS) {
+            String[] v = entrada.clone();
+            a.ordenar(v);
+            assertArrayEquals(esperado, v, a.getNome());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.giovannyenes.estruturadados.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giovannyenes.estruturadados.controller.AnaliseController;
+import com.giovannyenes.estruturadados.controller.InternoController;
+import com.giovannyenes.estruturadados.ordenacao.IntroSort;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Scatter-gather com os shards divididos entre a instância local (MG) e um worker (SP, GO).
+ *
+ * 🔸 O worker é uma instância de verdade (InternoController) atrás de um servidor HTTP local,
+ *    então os pedidos passam pelo RestClient e pelo JSON como em produção
+ */
+class ClusterServiceTest {
+
+    private static final List<String> ESTADOS = List.of("MG", "SP", "GO");
+    private static final int[] ANOS = {2020, 2021};
+
+    @TempDir
+    Path pasta;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final AtomicLong atrasoWorkerMs = new AtomicLong();
+    private final ExecutorService threadsWorker = Executors.newCachedThreadPool();
+    private HttpServer worker;
+    private MockMvc instanciaUnica;
+
+    @BeforeEach
+    void preparar() throws IOException {
+        escreverArquivos();
+        instanciaUnica = analise(shards(List.of()), semWorkers());
+
+        MockMvc interno = MockMvcBuilders.standaloneSetup(interno(shards(List.of("SP", "GO")))).build();
+        worker = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        worker.setExecutor(threadsWorker);
+        worker.createContext("/", troca -> {
+            try {
+                Thread.sleep(atrasoWorkerMs.get());
+                MockHttpServletResponse resposta = interno.perform(get(troca.getRequestURI()))
+                        .andReturn().getResponse();
+                byte[] corpo = resposta.getContentAsByteArray();
+                if (resposta.getContentType() != null) {
+                    troca.getResponseHeaders().set("Content-Type", resposta.getContentType());
+                }
+                troca.sendResponseHeaders(resposta.getStatus(), corpo.length == 0 ? -1 : corpo.length);
+                try (OutputStream saida = troca.getResponseBody()) {
+                    saida.write(corpo);
+                }
+            } catch (Exception e) {
+                troca.sendResponseHeaders(500, -1);
+            } finally {
+                troca.close();
+            }
+        });
+        worker.start();
+    }
+
+    @AfterEach
+    void encerrar() {
+        worker.stop(0);
+        threadsWorker.shutdownNow();
+    }
+
+    @Test
+    void agregadosExatosIguaisAosDaInstanciaUnica() throws Exception {
+        MockMvc coordenador = coordenador(5000, false);
+
+        for (String caminho : List.of("/api/analise/total-por-ano", "/api/analise/total-por-ano?estado=SP",
+                "/api/analise/ranking-municipios?top=5", "/api/analise/ranking-municipios?top=100",
+                "/api/analise/distribuicao-diaria", "/api/analise/distribuicao-diaria?ano=2021",
+                "/api/analise/focos-distintos", "/api/analise/focos-distintos?estado=GO&ano=2020",
+                "/api/analise/estados")) {
+            MockHttpServletResponse resposta = coordenador.perform(get(caminho)).andReturn().getResponse();
+            assertEquals(200, resposta.getStatus(), caminho);
+            assertNull(resposta.getHeader(ClusterService.CABECALHO_PARCIAL), caminho);
+            assertEquals(ler(instanciaUnica, caminho), json.readTree(resposta.getContentAsByteArray()), caminho);
+        }
+        // O worker realmente contribuiu: sem ele faltariam SP e GO
+        assertEquals(List.of("GO", "MG", "SP"), json.readValue(
+                coordenador.perform(get("/api/analise/estados")).andReturn().getResponse().getContentAsByteArray(),
+                List.class));
+    }
+
+    @Test
+    void modoAproximadoMesclaOsSketchesDoWorker() throws Exception {
+        MockMvc coordenador = coordenador(5000, false);
+
+        // HLL (máximo por registrador), DDSketch (soma dos baldes) e Space-Saving abaixo da
+        // capacidade não dependem da ordem da mescla: o resultado é idêntico ao de uma instância
+        for (String caminho : List.of("/api/analise/focos-distintos?aproximado=true",
+                "/api/analise/municipios-distintos?aproximado=true&ano=2020",
+                "/api/analise/ranking-municipios?aproximado=true&top=10",
+                "/api/analise/distribuicao-diaria?aproximado=true")) {
+            MockHttpServletResponse resposta = coordenador.perform(get(caminho)).andReturn().getResponse();
+            assertEquals(200, resposta.getStatus(), caminho);
+            assertEquals(ler(instanciaUnica, caminho), json.readTree(resposta.getContentAsByteArray()), caminho);
+        }
+        // Só o worker tem SP: sem os sketches dele a resposta viria vazia
+        assertEquals(ler(instanciaUnica, "/api/analise/ranking-municipios?aproximado=true&estado=SP"),
+                ler(coordenador, "/api/analise/ranking-municipios?aproximado=true&estado=SP"));
+        assertFalse(ler(coordenador, "/api/analise/ranking-municipios?aproximado=true&estado=SP").isEmpty());
+    }
+
+    @Test
+    void workerAtrasadoRespondeServicoIndisponivel() throws Exception {
+        MockMvc coordenador = coordenador(300, false);
+        atrasoWorkerMs.set(2000);
+
+        for (String caminho : List.of("/api/analise/total-por-ano", "/api/analise/focos-distintos",
+                "/api/analise/distribuicao-diaria?aproximado=true")) {
+            assertEquals(503, coordenador.perform(get(caminho)).andReturn().getResponse().getStatus(), caminho);
+        }
+    }
+
+    @Test
+    void tolerarFalhasMarcaARespostaComoParcial() throws Exception {
+        MockMvc coordenador = coordenador(300, true);
+        atrasoWorkerMs.set(2000);
+
+        MockHttpServletResponse resposta = coordenador.perform(get("/api/analise/total-por-ano"))
+                .andReturn().getResponse();
+        assertEquals(200, resposta.getStatus());
+        assertEquals("true", resposta.getHeader(ClusterService.CABECALHO_PARCIAL));
+        // Só os shards locais (MG) entraram
+        assertEquals(ler(instanciaUnica, "/api/analise/total-por-ano?estado=MG"),
+                json.readTree(resposta.getContentAsByteArray()));
+
+        MockHttpServletResponse aproximada = coordenador.perform(get("/api/analise/focos-distintos?aproximado=true"))
+                .andReturn().getResponse();
+        assertEquals(200, aproximada.getStatus());
+        assertEquals("true", aproximada.getHeader(ClusterService.CABECALHO_PARCIAL));
+    }
+
+    // ============================================================
+    // 🔹 MONTAGEM DAS INSTÂNCIAS
+    // ============================================================
+
+    private MockMvc coordenador(long timeoutMs, boolean tolerarFalhas) {
+        ClusterService cluster = new ClusterService(new SimpleMeterRegistry(),
+                List.of("http://127.0.0.1:" + worker.getAddress().getPort()), timeoutMs, tolerarFalhas, 1000);
+        return analise(shards(List.of("MG")), cluster);
+    }
+
+    private ClusterService semWorkers() {
+        return new ClusterService(new SimpleMeterRegistry(), List.of(), 1000, false, 1000);
+    }
+
+    private ShardService shards(List<String> estados) {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        ShardService shardService = new ShardService(new CsvLoaderService(registro), registro, 64, estados, "", 0);
+        shardService.catalogar(pasta.toString());
+        return shardService;
+    }
+
+    private MockMvc analise(ShardService shardService, ClusterService cluster) {
+        AnaliseService analiseService = analiseService(shardService, cluster);
+        AnaliseController controller = new AnaliseController(analiseService, new SketchService(shardService, cluster),
+                mock(EventosService.class));
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private InternoController interno(ShardService shardService) {
+        ClusterService cluster = semWorkers();
+        return new InternoController(analiseService(shardService, cluster), shardService,
+                new SketchService(shardService, cluster));
+    }
+
+    private AnaliseService analiseService(ShardService shardService, ClusterService cluster) {
+        return new AnaliseService(shardService, cluster,
+                new OrdenacaoService(List.of(new IntroSort()), "introsort"), new SimpleMeterRegistry(), 200_000);
+    }
+
+    private JsonNode ler(MockMvc mvc, String caminho) throws Exception {
+        MockHttpServletResponse resposta = mvc.perform(get(caminho)).andReturn().getResponse();
+        assertEquals(200, resposta.getStatus(), caminho);
+        return json.readTree(resposta.getContentAsByteArray());
+    }
+
+    /**
+     * Três estados × dois anos. O município k tem 10(k+1)+k focos espalhados entre os arquivos,
+     * então nenhum empata no ranking (o top N é o mesmo em qualquer ordem de mescla).
+     */
+    private void escreverArquivos() throws IOException {
+        Random aleatorio = new Random(42);
+        Map<String, StringBuilder> arquivos = new TreeMap<>();
+        for (int k = 0; k < 20; k++) {
+            for (int i = 0; i < 10 * (k + 1) + k; i++) {
+                String uf = ESTADOS.get(aleatorio.nextInt(ESTADOS.size()));
+                int ano = ANOS[aleatorio.nextInt(ANOS.length)];
+                LocalDate data = LocalDate.of(ano, 1, 1).plusDays(aleatorio.nextInt(60));
+                arquivos.computeIfAbsent("focos_br_" + uf.toLowerCase() + "_ref_" + ano + ".csv",
+                                n -> new StringBuilder("id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\n"))
+                        .append(i).append(',').append(new UUID(aleatorio.nextLong(), aleatorio.nextLong()))
+                        .append(",-17.5,-47.1,").append(data).append(" 17:05:00,Brasil,").append(uf)
+                        .append(",MUNICIPIO ").append(k).append(",Cerrado\n");
+            }
+        }
+        assertEquals(ESTADOS.size() * ANOS.length, arquivos.size());
+        for (Map.Entry<String, StringBuilder> arquivo : arquivos.entrySet()) {
+            Files.writeString(pasta.resolve(arquivo.getKey()), arquivo.getValue(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.giovannyenes.estruturadados.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giovannyenes.estruturadados.controller.AnaliseController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+class EventosServiceTest {
+
+    private static final String CABECALHO = "id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\n";
+
+    /** Evento SSE lido da resposta; dados null = comentário (heartbeat). */
+    private record Recebido(String id, String nome, JsonNode dados) {}
+
+    @TempDir
+    Path pasta;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final List<Thread> conexoes = new ArrayList<>();
+    // Clientes com o cabeçalho "X-Lento" param de ler depois que a trava é armada
+    private volatile boolean travaArmada;
+    private final CountDownLatch travou = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private ShardService shardService;
+    private MockMvc mvc;
+    private int idBdq;
+
+    @AfterEach
+    void encerrar() {
+        liberar.countDown();
+        conexoes.forEach(Thread::interrupt);
+    }
+
+    @Test
+    void deltaComShardNovoEAlterado() throws Exception {
+        escrever("MG", 2020, "UNAÍ", "UNAÍ", "PARACATU");
+        preparar(100);
+        shardService.registros(shardService.selecionar("MG", 2020).get(0));   // resumo de antes da mudança
+        MockHttpServletResponse cliente = conectar(get("/api/analise/eventos"));
+        esperar(() -> eventos(cliente).size() == 1);
+
+        String versaoAntes = shardService.getVersao();
+        escrever("MG", 2020, "UNAÍ", "JANUÁRIA");
+        escrever("SP", 2021, "CAMPINAS", "CAMPINAS");
+        shardService.verificarArquivos();
+        esperar(() -> eventos(cliente).size() == 2);
+
+        Recebido delta = eventos(cliente).get(1);
+        assertEquals("delta", delta.nome());
+        assertEquals("1", delta.id());
+        assertEquals(1, delta.dados().get("sequencia").asInt());
+        assertFalse(versaoAntes.equals(delta.dados().get("versao").asText()));
+        assertEquals(shardService.getVersao(), delta.dados().get("versao").asText());
+
+        // Shard alterado: só as chaves que mudaram, com a diferença
+        JsonNode mg = delta.dados().get("deltas").get("MG");
+        assertEquals(json.readTree("{\"UNAÍ\":1,\"JANUÁRIA\":1}"), mg.get("municipio"));
+        assertEquals(json.readTree("{\"2020\":2}"), mg.get("ano"));
+        // Shard novo: todas as contagens dele
+        JsonNode sp = delta.dados().get("deltas").get("SP");
+        assertEquals(json.readTree("{\"CAMPINAS\":2}"), sp.get("municipio"));
+        assertEquals(json.readTree("{\"2021\":2}"), sp.get("ano"));
+        // Todos os shards têm resumo: o ranking vai completo
+        assertEquals(json.readTree("{\"UNAÍ\":3,\"CAMPINAS\":2,\"JANUÁRIA\":1,\"PARACATU\":1}"),
+                delta.dados().get("ranking"));
+    }
+
+    @Test
+    void ingestoesDentroDaJanelaViramUmEvento() throws Exception {
+        escrever("MG", 2020, "UNAÍ");
+        escrever("SP", 2020, "CAMPINAS");
+        preparar(1000);
+        shardService.varrer(null, null, List::size, Integer::sum, 0);
+        MockHttpServletResponse cliente = conectar(get("/api/analise/eventos"));
+        esperar(() -> eventos(cliente).size() == 1);
+
+        escrever("MG", 2020, "UNAÍ");
+        shardService.verificarArquivos();
+        escrever("SP", 2020, "CAMPINAS", "SANTOS");
+        shardService.verificarArquivos();
+        escrever("MG", 2020, "PARACATU");
+        shardService.verificarArquivos();
+        esperar(() -> eventos(cliente).size() == 2);
+        Thread.sleep(300);
+
+        List<Recebido> recebidos = eventos(cliente);
+        assertEquals(2, recebidos.size());
+        JsonNode deltas = recebidos.get(1).dados().get("deltas");
+        assertEquals(json.readTree("{\"UNAÍ\":1,\"PARACATU\":1}"), deltas.get("MG").get("municipio"));
+        assertEquals(json.readTree("{\"CAMPINAS\":1,\"SANTOS\":1}"), deltas.get("SP").get("municipio"));
+        assertEquals(1.0, registro.get("eventos.publicados").tag("tipo", "delta").counter().count());
+    }
+
+    @Test
+    void clienteAtrasadoRecebeRecarregar() throws Exception {
+        escrever("MG", 2020, "UNAÍ");
+        preparar(50);
+        shardService.registros(shardService.selecionar("MG", 2020).get(0));
+        MockHttpServletResponse lento = conectar(get("/api/analise/eventos").header("X-Lento", "true"));
+        MockHttpServletResponse normal = conectar(get("/api/analise/eventos"));
+        esperar(() -> eventos(lento).size() == 1 && eventos(normal).size() == 1);
+
+        // O envio do evento 1 para o cliente lento fica preso; o 2 fica na fila; o 3 encontra a fila cheia
+        travaArmada = true;
+        for (int evento = 1; evento <= 3; evento++) {
+            escrever("MG", 2020, "UNAÍ");
+            shardService.verificarArquivos();
+            int esperados = evento + 1;
+            esperar(() -> eventos(normal).size() == esperados);
+            if (evento == 1) assertTrue(travou.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of("conectado", "delta", "delta", "delta"), nomes(eventos(normal)));
+
+        liberar.countDown();
+        esperar(() -> eventos(lento).size() == 3);
+        Thread.sleep(200);
+        List<Recebido> recebidos = eventos(lento);
+        assertEquals(List.of("conectado", "delta", "recarregar"), nomes(recebidos));
+        assertEquals("3", recebidos.get(2).id());
+        assertEquals(shardService.getVersao(), recebidos.get(2).dados().get("versao").asText());
+        assertEquals(1.0, registro.get("eventos.clientes.atrasados").counter().count());
+    }
+
+    @Test
+    void reconexaoComLastEventIdAntigoRecebeRecarregar() throws Exception {
+        escrever("MG", 2020, "UNAÍ");
+        preparar(50);
+        shardService.registros(shardService.selecionar("MG", 2020).get(0));
+        MockHttpServletResponse primeiro = conectar(get("/api/analise/eventos"));
+        escrever("MG", 2020, "UNAÍ");
+        shardService.verificarArquivos();
+        esperar(() -> eventos(primeiro).size() == 2);
+
+        // Sem Last-Event-ID, em branco ou com o último publicado: nada foi perdido
+        assertEquals("conectado", primeiroEvento(get("/api/analise/eventos")).nome());
+        assertEquals("conectado", primeiroEvento(get("/api/analise/eventos").header("Last-Event-ID", " ")).nome());
+        Recebido emDia = primeiroEvento(get("/api/analise/eventos").header("Last-Event-ID", "1"));
+        assertEquals("conectado", emDia.nome());
+        assertEquals(1, emDia.dados().get("sequencia").asInt());
+
+        // Id antigo: os deltas perdidos não são guardados
+        Recebido atrasado = primeiroEvento(get("/api/analise/eventos").header("Last-Event-ID", "0"));
+        assertEquals("recarregar", atrasado.nome());
+        assertEquals("1", atrasado.id());
+        assertEquals(shardService.getVersao(), atrasado.dados().get("versao").asText());
+    }
+
+    // ============================================================
+    // 🔹 MONTAGEM
+    // ============================================================
+
+    private void preparar(long janelaMs) {
+        shardService = new ShardService(new CsvLoaderService(registro), registro, 64, List.of(), "", 0);
+        shardService.catalogar(pasta.toString());
+        ClusterService cluster = new ClusterService(registro, List.of(), 1000, false, 1000);
+        EventosService eventos = new EventosService(shardService, cluster, json, registro,
+                janelaMs, 0, 60_000, 10, 4, 20, 0);
+        AnaliseController controller = new AnaliseController(mock(AnaliseService.class),
+                mock(SketchService.class), eventos);
+        // Como o Spring Boot: String em UTF-8 (o padrão do standalone é ISO-8859-1)
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new StringHttpMessageConverter(StandardCharsets.UTF_8),
+                        new MappingJackson2HttpMessageConverter(json))
+                .addFilters(new TravarClienteLento())
+                .build();
+    }
+
+    /** Abre a conexão numa thread própria (um envio travado não segura o teste). */
+    private MockHttpServletResponse conectar(MockHttpServletRequestBuilder pedido) throws InterruptedException {
+        MockHttpServletResponse[] resposta = new MockHttpServletResponse[1];
+        CountDownLatch iniciada = new CountDownLatch(1);
+        Thread conexao = new Thread(() -> {
+            try {
+                resposta[0] = mvc.perform(pedido).andReturn().getResponse();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                iniciada.countDown();
+            }
+        });
+        conexao.setDaemon(true);
+        conexao.start();
+        conexoes.add(conexao);
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+        return resposta[0];
+    }
+
+    private Recebido primeiroEvento(MockHttpServletRequestBuilder pedido) throws Exception {
+        MockHttpServletResponse resposta = conectar(pedido);
+        esperar(() -> !eventos(resposta).isEmpty());
+        return eventos(resposta).get(0);
+    }
+
+    /** Eventos completos (terminados por linha em branco) no formato text/event-stream do SseEmitter. */
+    private List<Recebido> eventos(MockHttpServletResponse resposta) {
+        List<Recebido> recebidos = new ArrayList<>();
+        String corpo;
+        try {
+            corpo = resposta.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        int fim = corpo.lastIndexOf("\n\n");
+        if (fim < 0) return recebidos;
+        for (String bloco : corpo.substring(0, fim).split("\n\n")) {
+            String id = null;
+            String nome = null;
+            JsonNode dados = null;
+            for (String linha : bloco.split("\n")) {
+                try {
+                    if (linha.startsWith("id:")) id = linha.substring(3);
+                    else if (linha.startsWith("event:")) nome = linha.substring(6);
+                    else if (linha.startsWith("data:")) dados = json.readTree(linha.substring(5));
+                } catch (IOException e) {
+                    throw new IllegalStateException(linha, e);
+                }
+            }
+            if (nome != null) recebidos.add(new Recebido(id, nome, dados));
+        }
+        return recebidos;
+    }
+
+    private List<String> nomes(List<Recebido> recebidos) {
+        return recebidos.stream().map(Recebido::nome).toList();
+    }
+
+    private void esperar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) throw new AssertionError("Condição não atingida em 5 s");
+            Thread.sleep(10);
+        }
+    }
+
+    /** Acrescenta um foco por município (cria o arquivo com cabeçalho se ainda não existe). */
+    private void escrever(String uf, int ano, String... municipios) throws IOException {
+        Path arquivo = pasta.resolve("focos_br_" + uf.toLowerCase() + "_ref_" + ano + ".csv");
+        StringBuilder csv = new StringBuilder(Files.exists(arquivo) ? "" : CABECALHO);
+        for (String municipio : municipios) {
+            idBdq++;
+            csv.append(idBdq).append(",5e864492-5abb-11e8-911c-").append(String.format("%012x", idBdq))
+                    .append(",-17.5,-47.1,").append(ano).append("-05-15 17:05:00,Brasil,").append(uf)
+                    .append(',').append(municipio).append(",Cerrado\n");
+        }
+        Files.writeString(arquivo, csv, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /** Simula um cliente que parou de ler: com a trava armada, o write fica preso até liberar. */
+    private class TravarClienteLento extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            if (request.getHeader("X-Lento") == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            ServletOutputStream original = response.getOutputStream();
+            ServletOutputStream lento = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    esperarLiberacao();
+                    original.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int inicio, int tamanho) throws IOException {
+                    esperarLiberacao();
+                    original.write(b, inicio, tamanho);
+                }
+
+                @Override
+                public boolean isReady() { return true; }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {}
+            };
+            chain.doFilter(request, new HttpServletResponseWrapper(response) {
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    return lento;
+                }
+            });
+        }
+    }
+
+    private void esperarLiberacao() throws IOException {
+        if (!travaArmada) return;
+        travou.countDown();
+        try {
+            liberar.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
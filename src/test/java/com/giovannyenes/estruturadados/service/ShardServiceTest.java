@@ -0,0 +1,196 @@
+package com.giovannyenes.estruturadados.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.giovannyenes.estruturadados.model.DadosDesmatamento;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ShardServiceTest {
+
+    private static final String CABECALHO = "id_bdq,foco_id,lat,lon,data_pas,pais,estado,municipio,bioma\n";
+
+    @TempDir
+    Path pasta;
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+    @Test
+    void selecionarFiltraPorEstadoEAno() throws IOException {
+        escrever("MG", 2020, 3);
+        escrever("MG", 2021, 3);
+        escrever("SP", 2020, 3);
+        Files.writeString(pasta.resolve("focos_mg_2022.csv"), CABECALHO);   // fora do padrão: ignorado
+
+        ShardService shards = shardService(64, List.of(), "");
+        assertEquals(List.of("MG/2020", "MG/2021", "SP/2020"), chaves(shards.selecionar(null, null)));
+        assertEquals(List.of("MG/2020", "MG/2021"), chaves(shards.selecionar(" mg ", null)));
+        assertEquals(List.of("MG/2020", "SP/2020"), chaves(shards.selecionar("", 2020)));
+        assertEquals(List.of("SP/2020"), chaves(shards.selecionar("SP", 2020)));
+        assertEquals(List.of(), chaves(shards.selecionar("SP", 2021)));
+        assertEquals(List.of(), chaves(shards.selecionar("RJ", null)));
+        // Catalogar não lê nenhum arquivo
+        assertTrue(shards.selecionar(null, null).stream().noneMatch(ShardService.Shard::isCarregado));
+
+        // Partição de um worker: só os estados e anos configurados entram no catálogo
+        ShardService particao = shardService(64, List.of("mg", " SP"), "2021-2025");
+        assertEquals(List.of("MG/2021"), chaves(particao.selecionar(null, null)));
+    }
+
+    @Test
+    void despejaOShardMenosUsadoERelerNaProximaConsulta() throws IOException {
+        // 76 bytes por registro: dois shards de 6000 registros cabem em 1 MiB, três não
+        escrever("GO", 2020, 6000);
+        escrever("MG", 2020, 6000);
+        escrever("SP", 2020, 6000);
+        ShardService shards = shardService(1, List.of(), "");
+        List<String> lidos = new ArrayList<>();
+        shards.aoCarregar((shard, registros) -> lidos.add(shard.getChave()));
+        ShardService.Shard go = shards.selecionar("GO", null).get(0);
+        ShardService.Shard mg = shards.selecionar("MG", null).get(0);
+        ShardService.Shard sp = shards.selecionar("SP", null).get(0);
+        String versao = shards.getVersao();
+
+        List<DadosDesmatamento> registrosGo = shards.registros(go);
+        shards.registros(mg);
+        assertSame(registrosGo, shards.registros(go));    // acerto: GO passa a ser o mais recente
+        shards.registros(sp);                              // despeja MG, o menos usado
+
+        assertTrue(go.isCarregado());
+        assertFalse(mg.isCarregado());
+        assertTrue(sp.isCarregado());
+        assertEquals(2.0, registro.get("dataset.shards.carregados").gauge().value());
+        assertEquals(12_000.0, registro.get("dataset.registros").gauge().value());
+        assertTrue(registro.get("dataset.memoria.estimada").gauge().value() <= 1024 * 1024);
+
+        // MG volta do disco e despeja GO (agora o menos usado)
+        assertEquals(6000, shards.registros(mg).size());
+        assertFalse(go.isCarregado());
+        assertTrue(mg.isCarregado());
+        assertEquals(List.of("GO/2020", "MG/2020", "SP/2020", "MG/2020"), lidos);
+        assertEquals(2.0, registro.get("dataset.shards.despejos").counter().count());
+        assertEquals(1.0, registro.get("dataset.shards.acessos").tag("resultado", "acerto").counter().count());
+        assertEquals(4.0, registro.get("dataset.shards.acessos").tag("resultado", "falta").counter().count());
+        // Despejo e recarga de um arquivo inalterado não mudam a versão dos dados
+        assertEquals(versao, shards.getVersao());
+    }
+
+    @Test
+    void falhaNaLeituraDeixaOShardDescarregado() throws IOException {
+        escrever("MG", 2020, 3);
+        CsvLoaderService loader = mock(CsvLoaderService.class);
+        List<DadosDesmatamento> lidos = List.of(new DadosDesmatamento());
+        when(loader.carregarArquivo(any(File.class)))
+                .thenThrow(new IllegalStateException("Falha ao ler focos_br_mg_ref_2020.csv"))
+                .thenReturn(lidos);
+        ShardService shards = new ShardService(loader, registro, 64, List.of(), "", 0);
+        shards.catalogar(pasta.toString());
+        List<String> avisados = new ArrayList<>();
+        shards.aoCarregar((shard, registros) -> avisados.add(shard.getChave()));
+        ShardService.Shard mg = shards.selecionar("MG", 2020).get(0);
+
+        ResponseStatusException erro = assertThrows(ResponseStatusException.class, () -> shards.registros(mg));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, erro.getStatusCode());
+        assertFalse(mg.isCarregado());
+        assertTrue(avisados.isEmpty());
+        assertEquals(0.0, registro.get("dataset.registros").gauge().value());
+
+        // A próxima consulta tenta de novo
+        assertEquals(lidos, shards.registros(mg));
+        assertTrue(mg.isCarregado());
+        assertEquals(List.of("MG/2020"), avisados);
+    }
+
+    @Test
+    void ingestaoTrocaAsListasAntesDeMudarAVersao() throws IOException {
+        escrever("MG", 2020, 3);
+        ShardService shards = shardService(64, List.of(), "");
+        ShardService.Shard mg = shards.selecionar("MG", 2020).get(0);
+        shards.registros(mg);
+        String versaoInicial = shards.getVersao();
+
+        List<String> versoesNaCarga = new ArrayList<>();
+        List<ShardService.Ingestao> ingestoes = new ArrayList<>();
+        shards.aoCarregar((shard, registros) -> versoesNaCarga.add(shards.getVersao()));
+        shards.aoIngerir(ingestao -> {
+            // Quando a versão nova aparece, os registros novos já estão no shard
+            assertEquals(5, shards.registros(mg).size());
+            ingestoes.add(ingestao);
+        });
+
+        escrever("MG", 2020, 5);
+        escrever("SP", 2021, 2);
+        shards.verificarArquivos();
+
+        assertEquals(1, ingestoes.size());
+        assertEquals(List.of("SP/2021"), chaves(ingestoes.get(0).novos()));
+        assertEquals(List.of("MG/2020"), chaves(ingestoes.get(0).alterados()));
+        assertEquals(List.of(versaoInicial, versaoInicial), versoesNaCarga);   // lidos antes da troca
+        assertFalse(versaoInicial.equals(shards.getVersao()));
+        assertEquals(List.of("MG/2020", "SP/2021"), chaves(shards.selecionar(null, null)));
+
+        // Nada mudou: nenhuma ingestão
+        shards.verificarArquivos();
+        assertEquals(1, ingestoes.size());
+    }
+
+    @Test
+    void verificacaoAgendadaContinuaDepoisDeUmErro() throws Exception {
+        CsvLoaderService loader = mock(CsvLoaderService.class);
+        when(loader.carregarArquivo(any(File.class)))
+                .thenThrow(new InternalError("arquivo mapeado truncado"))
+                .thenReturn(List.of(new DadosDesmatamento()));
+        ShardService shards = new ShardService(loader, registro, 64, List.of(), "", 50);
+        shards.catalogar(pasta.toString());
+        String versaoInicial = shards.getVersao();
+
+        escrever("MG", 2020, 1);
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (shards.selecionar("MG", 2020).isEmpty() && System.nanoTime() < limite) Thread.sleep(20);
+
+        assertEquals(1, shards.selecionar("MG", 2020).size());
+        assertTrue(shards.selecionar("MG", 2020).get(0).isCarregado());
+        assertFalse(versaoInicial.equals(shards.getVersao()));
+    }
+
+    private ShardService shardService(long memoriaMaximaMb, List<String> estados, String anos) {
+        ShardService shards = new ShardService(new CsvLoaderService(registro), registro, memoriaMaximaMb, estados, anos, 0);
+        shards.catalogar(pasta.toString());
+        return shards;
+    }
+
+    private List<String> chaves(List<ShardService.Shard> shards) {
+        return shards.stream().map(ShardService.Shard::getChave).toList();
+    }
+
+    private void escrever(String uf, int ano, int linhas) throws IOException {
+        StringBuilder csv = new StringBuilder(CABECALHO);
+        for (int i = 0; i < linhas; i++) {
+            csv.append(i).append(",5e864492-5abb-11e8-911c-").append(String.format("%012x", i))
+                    .append(",-17.5,-47.1,").append(ano).append("-05-15 17:05:00,Brasil,").append(uf)
+                    .append(",MUNICIPIO ").append(i % 7).append(",Cerrado\n");
+        }
+        Files.writeString(pasta.resolve("focos_br_" + uf.toLowerCase() + "_ref_" + ano + ".csv"), csv,
+                StandardCharsets.UTF_8);
+    }
+}
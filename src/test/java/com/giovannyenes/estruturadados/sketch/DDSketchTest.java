@@ -0,0 +1,82 @@
+package com.giovannyenes.estruturadados.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DDSketchTest {
+
+    private static final double[] QUANTIS = {0, 0.01, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1};
+
+    @Test
+    void quantisFicamDentroDeAlfa() {
+        Random aleatorio = new Random(3);
+        for (double alfa : new double[]{0.01, 0.05}) {
+            // Focos por dia: cauda longa (lognormal), de 1 a dezenas de milhares
+            double[] valores = new double[100_000];
+            DDSketch sketch = new DDSketch(alfa);
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] = Math.max(1, Math.round(Math.exp(3 + 1.5 * aleatorio.nextGaussian())));
+                sketch.adicionar(valores[i]);
+            }
+            assertQuantis(sketch, valores, "α=" + alfa);
+        }
+    }
+
+    @Test
+    void quantisFicamDentroDeAlfaAposMesclar() {
+        Random aleatorio = new Random(5);
+        DDSketch a = new DDSketch(0.01);
+        DDSketch b = new DDSketch(0.01);
+        double[] valores = new double[60_000];
+        for (int i = 0; i < valores.length; i++) {
+            // Metades com escalas diferentes (ex.: estados com muitos e poucos focos)
+            valores[i] = i % 2 == 0 ? 1 + aleatorio.nextInt(50) : 100 + aleatorio.nextInt(20_000);
+            (i % 2 == 0 ? a : b).adicionar(valores[i]);
+        }
+
+        a.mesclar(b);
+        assertEquals(valores.length, a.total());
+        assertQuantis(a, valores, "mesclado");
+    }
+
+    @Test
+    void baldesExportadosRecriamOMesmoSketch() {
+        Random aleatorio = new Random(7);
+        DDSketch sketch = new DDSketch(0.01);
+        sketch.adicionar(0);
+        for (int i = 0; i < 10_000; i++) sketch.adicionar(1 + aleatorio.nextInt(5_000));
+
+        DDSketch copia = DDSketch.deBaldes(sketch.alfa(), sketch.baldes(), sketch.zeros());
+        assertEquals(sketch.total(), copia.total());
+        for (double q : QUANTIS) assertEquals(sketch.quantil(q), copia.quantil(q), "q=" + q);
+    }
+
+    @Test
+    void zerosEVazio() {
+        DDSketch sketch = new DDSketch(0.01);
+        assertTrue(Double.isNaN(sketch.quantil(0.5)));
+
+        sketch.adicionar(0);
+        sketch.adicionar(0);
+        sketch.adicionar(10);
+        assertEquals(0, sketch.quantil(0.5));
+        assertEquals(10, sketch.quantil(1), 10 * 0.01);
+    }
+
+    /** Mesma definição de posição do sketch: valor de índice floor(q * (n - 1)) no vetor ordenado. */
+    private void assertQuantis(DDSketch sketch, double[] valores, String caso) {
+        double[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        for (double q : QUANTIS) {
+            double real = ordenados[(int) (q * (ordenados.length - 1))];
+            double estimado = sketch.quantil(q);
+            assertTrue(Math.abs(estimado - real) <= sketch.alfa() * real * (1 + 1e-9),
+                    caso + " q=" + q + ": estimado " + estimado + ", real " + real);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.giovannyenes.estruturadados.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimativaFicaDentroDeTresErrosPadrao() {
+        for (int p : new int[]{10, 14}) {
+            for (int n : new int[]{100, 5_000, 200_000, 1_000_000}) {
+                HyperLogLog hll = new HyperLogLog(p);
+                for (int i = 0; i < n; i++) {
+                    hll.adicionar("foco-" + i);
+                    if (i % 3 == 0) hll.adicionar("foco-" + i);   // repetidos não contam
+                }
+                assertDentro(n, hll, "p=" + p + " n=" + n);
+            }
+        }
+    }
+
+    @Test
+    void uuidsEmDoisLongsFicamDentroDeTresErrosPadrao() {
+        // Como os foco_ids do INPE (UUID v1): só os bits altos variam, os baixos são fixos
+        HyperLogLog hll = new HyperLogLog(14);
+        long baixo = 0x911c28924ad12c5cL;
+        for (long i = 0; i < 500_000; i++) {
+            long alto = 0x5e8644925abb11e8L + (i << 32);
+            hll.adicionar(alto, baixo);
+            hll.adicionar(alto, baixo);
+        }
+        assertDentro(500_000, hll, "uuid");
+    }
+
+    @Test
+    void registradoresExportadosRecriamOMesmoSketch() {
+        HyperLogLog hll = new HyperLogLog(12);
+        for (int i = 0; i < 50_000; i++) hll.adicionar("foco-" + i);
+
+        HyperLogLog copia = HyperLogLog.deRegistradores(hll.registradores());
+        assertEquals(hll.estimar(), copia.estimar());
+        assertEquals(hll.erroPadraoRelativo(), copia.erroPadraoRelativo());
+
+        // A cópia é independente do original
+        copia.adicionar("outro-foco");
+        copia.mesclar(hll);
+        assertEquals(hll.estimar(), HyperLogLog.deRegistradores(hll.registradores()).estimar());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.deRegistradores(new byte[1000]));
+    }
+
+    @Test
+    void mesclarEquivaleAVerAsDuasEntradas() {
+        // Conjuntos com interseção: [0, 600k) e [400k, 1M)
+        HyperLogLog a = new HyperLogLog(14);
+        HyperLogLog b = new HyperLogLog(14);
+        HyperLogLog uniao = new HyperLogLog(14);
+        for (int i = 0; i < 1_000_000; i++) {
+            String foco = "foco-" + i;
+            if (i < 600_000) a.adicionar(foco);
+            if (i >= 400_000) b.adicionar(foco);
+            uniao.adicionar(foco);
+        }
+
+        a.mesclar(b);
+        assertEquals(uniao.estimar(), a.estimar());
+        assertDentro(1_000_000, a, "mesclado");
+    }
+
+    private void assertDentro(long real, HyperLogLog hll, String caso) {
+        long estimado = hll.estimar();
+        double erro = Math.abs(estimado - real) / (double) real;
+        assertTrue(erro <= 3 * hll.erroPadraoRelativo(),
+                caso + ": estimado " + estimado + ", real " + real + " (erro " + erro + ")");
+    }
+}
@@ -0,0 +1,102 @@
+package com.giovannyenes.estruturadados.sketch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingTest {
+
+    @Test
+    void exatoEnquantoHaEspaco() {
+        SpaceSaving ss = new SpaceSaving(10);
+        Map<String, Long> real = new HashMap<>();
+        Random aleatorio = new Random(1);
+        for (int i = 0; i < 5_000; i++) {
+            String municipio = "M" + aleatorio.nextInt(10);
+            ss.adicionar(municipio);
+            real.merge(municipio, 1L, Long::sum);
+        }
+
+        List<SpaceSaving.Item> top = ss.top(10);
+        assertEquals(10, top.size());
+        for (SpaceSaving.Item item : top) {
+            assertEquals(real.get(item.chave()), item.contagem(), item.chave());
+            assertEquals(0, item.erro(), item.chave());
+        }
+        // Cheio sem substituições: o mínimo é a menor contagem real
+        assertEquals(real.values().stream().mapToLong(Long::longValue).min().getAsLong(), ss.minimo());
+    }
+
+    @Test
+    void limitesValemAposSubstituicoes() {
+        Map<String, Long> real = new HashMap<>();
+        SpaceSaving ss = preencher(new SpaceSaving(50), real, 200_000, 2_000, 11);
+
+        assertLimites(ss, real, 200_000, 50);
+    }
+
+    @Test
+    void limitesValemAposMesclar() {
+        Map<String, Long> realA = new HashMap<>();
+        Map<String, Long> realB = new HashMap<>();
+        SpaceSaving a = preencher(new SpaceSaving(50), realA, 120_000, 2_000, 21);
+        SpaceSaving b = preencher(new SpaceSaving(50), realB, 80_000, 500, 22);
+
+        a.mesclar(b);
+        realB.forEach((k, v) -> realA.merge(k, v, Long::sum));
+        assertLimites(a, realA, 200_000, 50);
+    }
+
+    @Test
+    void itensExportadosRecriamOMesmoSketch() {
+        Map<String, Long> realA = new HashMap<>();
+        Map<String, Long> realB = new HashMap<>();
+        SpaceSaving a = preencher(new SpaceSaving(50), realA, 120_000, 2_000, 31);
+        SpaceSaving b = preencher(new SpaceSaving(50), realB, 80_000, 500, 32);
+
+        SpaceSaving copia = SpaceSaving.deItens(b.capacidade(), b.top(b.capacidade()));
+        assertEquals(b.top(50), copia.top(50));
+        assertEquals(b.minimo(), copia.minimo());
+
+        // Mesclar a cópia dá o mesmo resultado que mesclar o original
+        SpaceSaving outroA = SpaceSaving.deItens(a.capacidade(), a.top(a.capacidade()));
+        a.mesclar(b);
+        outroA.mesclar(copia);
+        assertEquals(a.top(50), outroA.top(50));
+    }
+
+    /** Distribuição Zipf aproximada: poucos municípios concentram a maior parte dos focos. */
+    private SpaceSaving preencher(SpaceSaving ss, Map<String, Long> real, int n, int distintos, long semente) {
+        Random aleatorio = new Random(semente);
+        for (int i = 0; i < n; i++) {
+            int posicao = (int) Math.floor(Math.pow(distintos, aleatorio.nextDouble())) - 1;
+            String municipio = "M" + posicao;
+            ss.adicionar(municipio);
+            real.merge(municipio, 1L, Long::sum);
+        }
+        return ss;
+    }
+
+    private void assertLimites(SpaceSaving ss, Map<String, Long> real, long n, int capacidade) {
+        List<SpaceSaving.Item> top = ss.top(capacidade);
+        for (SpaceSaving.Item item : top) {
+            long contagemReal = real.getOrDefault(item.chave(), 0L);
+            assertTrue(item.contagem() >= contagemReal, item + " real=" + contagemReal);
+            assertTrue(item.contagem() - item.erro() <= contagemReal, item + " real=" + contagemReal);
+        }
+
+        // Todo item com frequência real > n / capacidade precisa estar monitorado
+        Set<String> monitorados = top.stream().map(SpaceSaving.Item::chave).collect(Collectors.toSet());
+        real.forEach((municipio, contagem) -> {
+            if (contagem > n / capacidade) assertTrue(monitorados.contains(municipio), municipio + "=" + contagem);
+        });
+    }
+}